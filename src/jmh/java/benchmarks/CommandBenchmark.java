@@ -0,0 +1,131 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import utils.Storage;
+import utils.TaskList;
+import utils.UI;
+
+/**
+ * Benchmarks for UI.processCommand, covering parsing, dispatch, execution and journaling of
+ * each command against a journaled task file. Commands that change the number of tasks are
+ * measured together with the command that undoes them, so the list keeps the same size.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+    @Param({"1000", "100000"})
+    protected int size;
+
+    @Param({"list", "find", "reminder", "todo", "deadline", "event", "mark", "unmark", "delete"})
+    protected String command;
+
+    private File directory;
+    private Storage storage;
+    private TaskList taskList;
+    private UI ui;
+    private String input;
+    private String undo;
+
+    /**
+     * Writes a task file of the configured size, loads it and prepares the command to run.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fishball-bench").toFile();
+        String path = new File(directory, "tasks.txt").getPath();
+        TaskGenerator.writeFile(path, size, false);
+        storage = new Storage(path, true);
+        taskList = storage.loadTaskList();
+        ui = new UI();
+        int middle = size / 2;
+        switch (command) {
+        case "find":
+            input = "find " + TaskGenerator.WORDS[0] + " " + TaskGenerator.WORDS[1];
+            break;
+        case "reminder":
+            input = "reminder 7";
+            break;
+        case "todo":
+            input = "todo benchmark task";
+            undo = "delete " + (size + 1);
+            break;
+        case "deadline":
+            input = "deadline benchmark task /by 15-03-2030 2359";
+            undo = "delete " + (size + 1);
+            break;
+        case "event":
+            input = "event benchmark task /from 20-02-2030 1000 /to 20-02-2030 1100";
+            undo = "delete " + (size + 1);
+            break;
+        case "mark":
+            input = "mark " + middle;
+            undo = "unmark " + middle;
+            break;
+        case "unmark":
+            input = "unmark " + middle;
+            undo = "mark " + middle;
+            break;
+        case "delete":
+            input = "delete " + middle;
+            undo = "todo benchmark task";
+            break;
+        default:
+            input = command;
+        }
+    }
+
+    /**
+     * Closes the storage and deletes the temporary directory.
+     */
+    @TearDown
+    public void tearDown() {
+        storage.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Processes the command, followed by its undo command if it has one.
+     *
+     * @param blackhole consumes the responses
+     */
+    @Benchmark
+    public void processCommand(Blackhole blackhole) {
+        blackhole.consume(ui.processCommand(input, taskList, storage));
+        if (undo != null) {
+            blackhole.consume(ui.processCommand(undo, taskList, storage));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import server.FishballServer;
+
+/**
+ * LoadGenerator measures how many requests per second a {@link FishballServer} sustains.
+ * Each client thread keeps one connection open and sends commands back to back for the given
+ * duration: mostly find and reminder queries with answers of moderate size, and a configurable
+ * share of mark and unmark commands on the first task. Throughput and latency percentiles are
+ * printed at the end. Against a server that gives each user a task list of their own, the
+ * clients can be spread over several users, each of whom starts with one task.
+ * Usage: {@code LoadGenerator [port] [clients] [seconds] [writePercent] [users]}.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class LoadGenerator {
+    /** Queries whose responses list tens to hundreds of tasks of a generated file. */
+    private static final String[] QUERIES = {
+        "find " + TaskGenerator.WORDS[8] + " " + TaskGenerator.WORDS[9],
+        "find " + TaskGenerator.WORDS[30] + " /or " + TaskGenerator.WORDS[31],
+        "reminder 1", "reminder 2",
+    };
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Runs the load test against a server on the loopback address.
+     *
+     * @param args optionally the port, the number of clients, the duration in seconds, the
+     *             percentage of commands that change the list and the number of users
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : FishballServer.DEFAULT_PORT;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int users = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        long[][] latencies = new long[clients][];
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            Thread thread = new Thread(
+                    () -> latencies[client] = runClient(port, client, clients, end, writePercent, users),
+                    "load-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int total = 0;
+        for (long[] client : latencies) {
+            total += client.length;
+        }
+        long[] all = new long[total];
+        int filled = 0;
+        for (long[] client : latencies) {
+            System.arraycopy(client, 0, all, filled, client.length);
+            filled += client.length;
+        }
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d users, %d%% writes: %d requests in %d s, %.0f requests/s%n",
+                clients, users, writePercent, total, seconds, (double) total / seconds);
+        if (total > 0) {
+            System.out.printf("latency p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                    all[total / 2] / 1e3, all[(int) (total * 0.99)] / 1e3, all[total - 1] / 1e3);
+        }
+    }
+
+    /**
+     * Sends commands until the deadline and returns the latency of each one in nanoseconds.
+     * With users, every command is sent as a randomly chosen one of them.
+     */
+    private static long[] runClient(int port, int client, int clients, long end, int writePercent, int users) {
+        Random random = new Random(client);
+        long[] latencies = new long[1024];
+        int count = 0;
+        boolean isMarked = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            for (int user = client; user < users; user += clients) {
+                send(in, out, FishballServer.USER_COMMAND + " load" + user);
+                send(in, out, "todo load test task");
+            }
+            while (System.nanoTime() < end) {
+                if (users > 0) {
+                    send(in, out, FishballServer.USER_COMMAND + " load" + random.nextInt(users));
+                }
+                String command;
+                if (random.nextInt(100) < writePercent) {
+                    command = isMarked ? "unmark 1" : "mark 1";
+                    isMarked = !isMarked;
+                } else {
+                    command = QUERIES[random.nextInt(QUERIES.length)];
+                }
+                long start = System.nanoTime();
+                if (!send(in, out, command)) {
+                    break;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = System.nanoTime() - start;
+            }
+        } catch (IOException e) {
+            System.err.println("Client " + client + " failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    /**
+     * Sends a command and reads its response, returning false if the server closed the connection.
+     */
+    private static boolean send(BufferedReader in, BufferedWriter out, String command) throws IOException {
+        out.write(command);
+        out.newLine();
+        out.flush();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.equals(FishballServer.END_OF_RESPONSE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
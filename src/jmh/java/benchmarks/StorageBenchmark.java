@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tasks.Task;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * Benchmarks for loading and storing task files of various sizes and formats.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    protected int size;
+
+    @Param({"binary", "csv"})
+    protected String format;
+
+    private File directory;
+    private String path;
+    private ArrayList<Task> tasks;
+
+    /**
+     * Writes a task file of the configured size and format to a temporary directory.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("fishball-bench").toFile();
+        path = new File(directory, "tasks.txt").getPath();
+        tasks = TaskGenerator.generate(size);
+        TaskGenerator.writeFile(path, size, format.equals("csv"));
+    }
+
+    /**
+     * Deletes the temporary directory.
+     */
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Loads the file and materializes every task.
+     *
+     * @return the loaded tasks
+     */
+    @Benchmark
+    public ArrayList<Task> load() {
+        return new Storage(path).load();
+    }
+
+    /**
+     * Loads the file into a lazily materialized TaskList without touching any task.
+     *
+     * @return the loaded list
+     */
+    @Benchmark
+    public TaskList loadTaskList() {
+        return new Storage(path).loadTaskList();
+    }
+
+    /**
+     * Writes every task to a separate file, leaving the benchmark input intact.
+     */
+    @Benchmark
+    public void store() {
+        new Storage(path + ".out").store(tasks);
+    }
+}
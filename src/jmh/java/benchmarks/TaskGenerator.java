@@ -0,0 +1,115 @@
+package benchmarks;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Random;
+
+import tasks.Deadline;
+import tasks.Event;
+import tasks.Task;
+import tasks.Todo;
+import utils.Storage;
+
+/**
+ * TaskGenerator creates synthetic task lists and task files for the benchmarks.
+ * Generated lists are deterministic for a given seed: half of the tasks are todos, three in ten
+ * are deadlines and the rest are events, dated between 30 days ago and 60 days from now, and
+ * roughly a third of them are done. Descriptions are drawn from a small vocabulary so that
+ * keyword searches have realistic hit rates.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class TaskGenerator {
+    /** Words that descriptions are made of; "report" and "meeting" are the common ones. */
+    static final String[] WORDS = {
+        "report", "meeting", "buy", "groceries", "submit", "review", "call", "email",
+        "project", "lecture", "tutorial", "quiz", "assignment", "read", "chapter", "gym",
+        "dinner", "lunch", "plan", "trip", "book", "flight", "pay", "rent",
+        "clean", "room", "laundry", "fix", "bug", "deploy", "release", "notes",
+    };
+
+    private static final long SEED = 2103L;
+
+    private TaskGenerator() {
+    }
+
+    /**
+     * Generates a list of synthetic tasks.
+     *
+     * @param count the number of tasks to generate
+     * @return the generated tasks
+     */
+    public static ArrayList<Task> generate(int count) {
+        Random random = new Random(SEED);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        ArrayList<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(generateTask(random, now));
+        }
+        return tasks;
+    }
+
+    /**
+     * Generates synthetic tasks and writes them to a task file.
+     *
+     * @param path the file to write
+     * @param count the number of tasks to generate
+     * @param isCsv whether to write the legacy CSV format instead of a binary snapshot
+     */
+    public static void writeFile(String path, int count, boolean isCsv) {
+        new File(path).delete();
+        Storage storage = new Storage(path);
+        if (isCsv) {
+            storage.exportCsv(path, generate(count));
+        } else {
+            storage.store(generate(count));
+        }
+    }
+
+    /**
+     * Writes a synthetic task file, for producing large inputs outside of the benchmarks.
+     * Usage: {@code TaskGenerator <path> <count> [csv]}.
+     *
+     * @param args the file path, the number of tasks and optionally "csv"
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: TaskGenerator <path> <count> [csv]");
+            return;
+        }
+        int count = Integer.parseInt(args[1]);
+        writeFile(args[0], count, args.length > 2 && args[2].equals("csv"));
+        System.out.println("Wrote " + count + " tasks to " + args[0]);
+    }
+
+    private static Task generateTask(Random random, LocalDateTime now) {
+        String description = generateDescription(random);
+        boolean isDone = random.nextInt(3) == 0;
+        LocalDateTime date = now.plusMinutes(random.nextInt(90 * 24 * 60) - 30 * 24 * 60);
+        int kind = random.nextInt(10);
+        if (kind < 5) {
+            return new Todo(description, isDone);
+        } else if (kind < 8) {
+            return new Deadline(description, isDone, date);
+        } else {
+            return new Event(description, isDone, date, date.plusMinutes(30 + random.nextInt(3 * 24 * 60)));
+        }
+    }
+
+    private static String generateDescription(Random random) {
+        int length = 3 + random.nextInt(4);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            // Squaring skews the choice towards the first words of the vocabulary
+            double skew = random.nextDouble();
+            sb.append(WORDS[(int) (skew * skew * WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tasks.Task;
+import tasks.Todo;
+import utils.TaskList;
+
+/**
+ * Benchmarks for TaskList queries and updates on lists of various sizes.
+ * The date and word indexes are built during warmup, so the measurements cover the steady state.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskListBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    protected int size;
+
+    private TaskList taskList;
+    private ArrayList<String> rareKeyword;
+    private ArrayList<ArrayList<String>> allKeywords;
+    private ArrayList<ArrayList<String>> anyKeyword;
+
+    /**
+     * Fills the list with synthetic tasks and prepares the search terms.
+     */
+    @Setup
+    public void setUp() {
+        taskList = new TaskList(TaskGenerator.generate(size));
+        String rare = TaskGenerator.WORDS[TaskGenerator.WORDS.length - 1];
+        rareKeyword = new ArrayList<>();
+        rareKeyword.add(rare);
+        ArrayList<String> both = new ArrayList<>();
+        both.add(TaskGenerator.WORDS[0]);
+        both.add(TaskGenerator.WORDS[1]);
+        allKeywords = new ArrayList<>();
+        allKeywords.add(both);
+        anyKeyword = new ArrayList<>();
+        anyKeyword.add(rareKeyword);
+        ArrayList<String> other = new ArrayList<>();
+        other.add(TaskGenerator.WORDS[TaskGenerator.WORDS.length - 2]);
+        anyKeyword.add(other);
+    }
+
+    /**
+     * Queries the deadlines and events due within the next week.
+     *
+     * @return the upcoming tasks
+     */
+    @Benchmark
+    public ArrayList<Task> getUpcomingWithinWeek() {
+        return taskList.getUpcomingWithinWeek();
+    }
+
+    /**
+     * Finds the tasks containing a rarely used word.
+     *
+     * @return the matching positions
+     */
+    @Benchmark
+    public ArrayList<Integer> findRare() {
+        ArrayList<ArrayList<String>> groups = new ArrayList<>();
+        groups.add(rareKeyword);
+        return taskList.find(groups);
+    }
+
+    /**
+     * Finds the tasks containing both of the two most common words.
+     *
+     * @return the matching positions
+     */
+    @Benchmark
+    public ArrayList<Integer> findAll() {
+        return taskList.find(allKeywords);
+    }
+
+    /**
+     * Finds the tasks containing either of two rarely used words.
+     *
+     * @return the matching positions
+     */
+    @Benchmark
+    public ArrayList<Integer> findAny() {
+        return taskList.find(anyKeyword);
+    }
+
+    /**
+     * Retrieves a task at a random position.
+     *
+     * @return the task
+     */
+    @Benchmark
+    public Task get() {
+        return taskList.get(ThreadLocalRandom.current().nextInt(taskList.size()));
+    }
+
+    /**
+     * Removes a task at a random position and appends a new one, keeping the size constant.
+     *
+     * @return the appended task
+     */
+    @Benchmark
+    public Task removeAndAdd() {
+        taskList.remove(ThreadLocalRandom.current().nextInt(taskList.size()));
+        Task task = new Todo("benchmark task", false);
+        taskList.add(task);
+        return task;
+    }
+}
@@ -1,50 +1,68 @@
-import java.io.IOException;
-import java.util.Collections;
-
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
 
 /**
  * DialogBox represents a single message in a chat-like dialog interface.
  * It consists of an ImageView representing the speaker's avatar/face and a label
  * containing the speaker's message text.
  *
- * DialogBox components are typically added to a VBox to display a sequence of
- * messages in a chat-like conversation.
+ * DialogBox components are shown as the cells of the dialog ListView in MainWindow, which
+ * reuses each one for the messages of the same speaker as the list is scrolled.
  *
  * The layout can be flipped using the flip() method to display bot responses
  * with the avatar on the left and the message on the right, while user messages
  * have the avatar on the right.
  *
- * This class uses FXML for layout definition and supports both user and bot
- * message styling via static factory methods.
+ * The node tree is built in code rather than loaded from FXML, since loading FXML parses the
+ * layout and injects its fields reflectively for every box, which takes milliseconds where
+ * building the same nodes directly takes microseconds. The stylesheet is resolved once and
+ * shared by every box. Both user and bot message styling are available via static factory
+ * methods.
  */
 public class DialogBox extends HBox {
-    @FXML
-    private Label dialog;
-    @FXML
-    private ImageView displayPicture;
+    /** The stylesheet of every DialogBox. */
+    private static final String STYLESHEET = DialogBox.class.getResource("/css/dialog-box.css").toExternalForm();
+    /** Width and height of the avatar. */
+    private static final double PICTURE_SIZE = 99.0;
+    private static final double PREF_WIDTH = 400.0;
+
+    private final Label dialog;
+    private final ImageView displayPicture;
 
     private DialogBox(String text, Image img) {
-        try {
-            FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
-            fxmlLoader.load();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        dialog = new Label(text);
+        dialog.setMinHeight(Region.USE_PREF_SIZE);
+        dialog.setWrapText(true);
+
+        displayPicture = new ImageView(img);
+        displayPicture.setId("displayPicture");
+        displayPicture.setFitHeight(PICTURE_SIZE);
+        displayPicture.setFitWidth(PICTURE_SIZE);
+        displayPicture.setPickOnBounds(true);
+        displayPicture.setPreserveRatio(true);
+
+        getStylesheets().add(STYLESHEET);
+        setAlignment(Pos.TOP_RIGHT);
+        setMaxHeight(Double.MAX_VALUE);
+        setMaxWidth(Double.MAX_VALUE);
+        setPrefWidth(PREF_WIDTH);
+        setPadding(new Insets(15.0, 5.0, 15.0, 5.0));
+        getChildren().setAll(dialog, displayPicture);
+    }
 
+    /**
+     * Replaces the message shown, so that this DialogBox can show another message of the
+     * same speaker.
+     *
+     * @param text the message text to display
+     */
+    public void setText(String text) {
         dialog.setText(text);
-        displayPicture.setImage(img);
     }
 
     /**
@@ -56,9 +74,7 @@ public class DialogBox extends HBox {
      * adjusts alignment, and applies a reply-specific CSS style.
      */
     private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
+        getChildren().setAll(displayPicture, dialog);
         setAlignment(Pos.TOP_LEFT);
         dialog.getStyleClass().add("reply-label");
     }
@@ -0,0 +1,243 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * DialogHistory holds the messages of a GUI session in the order they were sent.
+ * Only the newest messages are kept in memory, up to a fixed capacity. Older messages are
+ * spilled to a file as they fall out, and read back through a small cache when they are
+ * scrolled to, so memory use stays flat however long the session runs.
+ *
+ * The spill file holds each message as a speaker byte, its length and its UTF-8 text, and an
+ * index file holds the offset of each message in the spill file, so any spilled message is two
+ * reads away. Both files are created on the first spill and deleted when the history is closed.
+ * If spilling fails, the history reports it and keeps further messages in memory instead.
+ *
+ * DialogHistory is not thread-safe; the GUI uses it from the JavaFX Application Thread only.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class DialogHistory implements Closeable {
+    /** Number of messages kept in memory when no other capacity is given. */
+    public static final int DEFAULT_CAPACITY = 200;
+
+    /** Number of spilled messages kept after they are read back. */
+    private static final int CACHE_SIZE = 64;
+    /** Length of the speaker byte and text length that precede each spilled message. */
+    private static final int HEADER_BYTES = 1 + Integer.BYTES;
+
+    /**
+     * Message is a single entry of the history: who sent it and what it says.
+     */
+    public static final class Message {
+        private final boolean isUser;
+        private final String text;
+
+        /**
+         * Constructs a Message.
+         *
+         * @param isUser true if the user sent the message, false if Fishball did
+         * @param text the text of the message
+         */
+        public Message(boolean isUser, String text) {
+            this.isUser = isUser;
+            this.text = text;
+        }
+
+        /**
+         * Checks whether the user sent this message.
+         *
+         * @return true if the user sent the message, false if Fishball did
+         */
+        public boolean isUser() {
+            return isUser;
+        }
+
+        /**
+         * Returns the text of this message.
+         *
+         * @return the message text
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    private final int capacity;
+    private final Path directory;
+    /** The messages in memory, oldest first, in a ring starting at head. */
+    private Message[] resident;
+    private int head;
+    private int residentCount;
+    /** Number of messages in the spill file, which are the oldest of the history. */
+    private int spilled;
+    private boolean canSpill = true;
+    private Path dataPath;
+    private Path indexPath;
+    private FileChannel data;
+    private FileChannel index;
+    private long dataEnd;
+    private final Map<Integer, Message> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Message> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructs an empty DialogHistory.
+     *
+     * @param capacity the number of messages to keep in memory
+     * @param directory the directory to create the spill files in
+     */
+    public DialogHistory(int capacity, Path directory) {
+        assert capacity > 0 : "capacity must be positive";
+        this.capacity = capacity;
+        this.directory = directory;
+        this.resident = new Message[capacity];
+    }
+
+    /**
+     * Appends a message, spilling the oldest message in memory if the history is at capacity.
+     *
+     * @param message the message to append
+     */
+    public void add(Message message) {
+        assert message != null : "message must not be null";
+        if (residentCount == capacity && canSpill) {
+            try {
+                spill(resident[head]);
+                resident[head] = null;
+                head = (head + 1) % resident.length;
+                residentCount--;
+                spilled++;
+            } catch (IOException e) {
+                System.err.println("Could not spill dialog history to disk: " + e.getMessage());
+                e.printStackTrace();
+                canSpill = false;
+            }
+        }
+        if (residentCount == resident.length) {
+            Message[] grown = new Message[resident.length * 2];
+            for (int i = 0; i < residentCount; i++) {
+                grown[i] = resident[(head + i) % resident.length];
+            }
+            resident = grown;
+            head = 0;
+        }
+        resident[(head + residentCount) % resident.length] = message;
+        residentCount++;
+    }
+
+    /**
+     * Returns the message at the given position, reading it back from disk if it was spilled.
+     *
+     * @param i the position of the message, from 0 for the first message of the session
+     * @return the message
+     * @throws IndexOutOfBoundsException if the position is out of range
+     */
+    public Message get(int i) {
+        Objects.checkIndex(i, size());
+        if (i >= spilled) {
+            return resident[(head + i - spilled) % resident.length];
+        }
+        Message message = cache.get(i);
+        if (message == null) {
+            try {
+                message = read(i);
+            } catch (IOException e) {
+                System.err.println("Could not read dialog history from disk: " + e.getMessage());
+                e.printStackTrace();
+                return new Message(false, "(This message could not be read back from " + dataPath + ".)");
+            }
+            cache.put(i, message);
+        }
+        return message;
+    }
+
+    /**
+     * Returns the number of messages in the history, in memory and spilled.
+     *
+     * @return the number of messages
+     */
+    public int size() {
+        return spilled + residentCount;
+    }
+
+    /**
+     * Returns the number of messages that were spilled to disk.
+     *
+     * @return the number of spilled messages
+     */
+    public int getSpilledCount() {
+        return spilled;
+    }
+
+    /**
+     * Closes and deletes the spill files. The history must not be used afterwards.
+     *
+     * @throws IOException if the files cannot be closed or deleted
+     */
+    @Override
+    public void close() throws IOException {
+        if (data != null) {
+            data.close();
+            index.close();
+            Files.deleteIfExists(dataPath);
+            Files.deleteIfExists(indexPath);
+        }
+    }
+
+    private void spill(Message message) throws IOException {
+        if (data == null) {
+            dataPath = Files.createTempFile(directory, "fishball-history", ".dat");
+            indexPath = Files.createTempFile(directory, "fishball-history", ".idx");
+            dataPath.toFile().deleteOnExit();
+            indexPath.toFile().deleteOnExit();
+            data = FileChannel.open(dataPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        byte[] text = message.getText().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + text.length);
+        record.put((byte) (message.isUser() ? 1 : 0)).putInt(text.length).put(text).flip();
+        ByteBuffer offset = ByteBuffer.allocate(Long.BYTES).putLong(dataEnd).flip();
+        writeFully(data, record, dataEnd);
+        writeFully(index, offset, (long) spilled * Long.BYTES);
+        dataEnd += HEADER_BYTES + text.length;
+    }
+
+    private Message read(int i) throws IOException {
+        ByteBuffer offset = readFully(index, Long.BYTES, (long) i * Long.BYTES);
+        long position = offset.getLong();
+        ByteBuffer header = readFully(data, HEADER_BYTES, position);
+        boolean isUser = header.get() != 0;
+        ByteBuffer text = readFully(data, header.getInt(), position + HEADER_BYTES);
+        return new Message(isUser, new String(text.array(), StandardCharsets.UTF_8));
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, int length, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Dialog history ends before message at " + position);
+            }
+        }
+        return buffer.flip();
+    }
+}
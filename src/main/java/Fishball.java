@@ -1,4 +1,7 @@
+import java.util.concurrent.CompletableFuture;
+
 import exceptions.FishballException;
+import utils.StartupTimer;
 import utils.Storage;
 import utils.TaskList;
 import utils.UI;
@@ -9,51 +12,92 @@ import utils.UI;
  * to the UI. It can operate in two modes: CLI mode via the run() method or GUI mode where
  * the caller directly accesses the TaskList and Storage components.
  *
+ * The task file is loaded once, on a background thread started by the constructor, so that
+ * parsing overlaps setting up the user interface. Whatever needs the TaskList waits for the load
+ * to finish.
+ *
+ * Changes are written behind the commands that make them, so Fishball closes its Storage however
+ * the program ends: when the CLI reads its last line, when the GUI closes, and from a shutdown
+ * hook when the JVM is stopped before either happens.
+ *
  * @author r-a-y-y-a
  * @version 1.0
  */
 public class Fishball {
-    private String filepath;
     private Storage storage;
-    private TaskList taskList;
+    /** The TaskList being loaded from storage. */
+    private CompletableFuture<TaskList> taskList;
+    private UI ui;
     private boolean isRunning;
+    /** Closes the Storage if the JVM stops before {@link #close()} is called. */
+    private final Thread shutdownHook;
 
     /**
      * Constructs a Fishball instance with the specified file path for data persistence.
-     * Initializes Storage and loads the TaskList.
+     * Initializes a journaled Storage that writes changes on a background thread, and starts
+     * loading the TaskList on another.
      *
      * @param filepath the path to the file where tasks will be stored and loaded
      */
     public Fishball(String filepath) {
-        this.filepath = filepath;
-        this.storage = new Storage(filepath);
-        this.taskList = new TaskList(storage.load());
+        long start = StartupTimer.now();
+        this.storage = new Storage(filepath, true);
+        this.storage.startWriteBehind(Storage.DEFAULT_WRITE_QUEUE_CAPACITY, Storage.DEFAULT_FLUSH_INTERVAL_MILLIS);
+        StartupTimer.record(StartupTimer.Phase.STORAGE_OPEN, start);
+        this.taskList = CompletableFuture.supplyAsync(() -> {
+            long parseStart = StartupTimer.now();
+            TaskList loaded = storage.loadTaskList();
+            StartupTimer.record(StartupTimer.Phase.PARSE, parseStart);
+            return loaded;
+        }, task -> {
+            Thread thread = new Thread(task, "fishball-loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+        this.ui = new UI();
         this.isRunning = true;
+        this.shutdownHook = new Thread(storage::close, "fishball-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
     }
 
     /**
      * Runs the Fishball application.
-     * Loads existing tasks from storage, displays a welcome message, and begins processing user input.
+     * Displays a welcome message while existing tasks are loaded, and begins processing user input
+     * once they are.
      *
      * @throws FishballException if an error occurs during execution
      */
     public void run() throws FishballException {
-        Storage storage = new Storage(filepath);
-        TaskList record = new TaskList(storage.load());
-        UI ui = new UI();
-
+        long start = StartupTimer.now();
         ui.printWelcome();
-        ui.handleInput(record, storage);
+        StartupTimer.record(StartupTimer.Phase.FIRST_FRAME, start);
+        try {
+            ui.handleInput(getTaskList(), storage);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Writes every change still queued and closes the Storage.
+     */
+    public void close() {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down, and the hook closes the Storage as well
+        }
+        storage.close();
     }
 
 
     /**
-     * Retrieves the TaskList for direct access (used by GUI).
+     * Retrieves the TaskList for direct access (used by GUI), waiting for it to be loaded.
      *
      * @return the current TaskList
      */
     public TaskList getTaskList() {
-        return taskList;
+        return taskList.join();
     }
 
     /**
@@ -78,8 +122,7 @@ public class Fishball {
         if (input.trim().equals("bye")) {
             isRunning = false;
         }
-        UI ui = new UI();
-        return ui.processCommand(input, taskList, storage);
+        return ui.processCommand(input, getTaskList(), storage);
     }
 
     /**
@@ -99,6 +142,7 @@ public class Fishball {
      * @throws FishballException if an error occurs during application startup or execution
      */
     public static void main(String[] args) throws FishballException {
+        StartupTimer.recordMain();
         Fishball fishball = new Fishball("../../../data/fishball.txt");
         fishball.run();
     }
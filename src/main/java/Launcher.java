@@ -1,10 +1,12 @@
 import javafx.application.Application;
+import utils.StartupTimer;
 
 /**
  * A launcher class to workaround classpath issues.
  */
 public class Launcher {
     public static void main(String[] args) {
+        StartupTimer.recordMain();
         Application.launch(Main.class, args);
     }
 }
@@ -1,20 +1,33 @@
 import java.io.IOException;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.layout.AnchorPane;
 import javafx.stage.Stage;
+import utils.StartupTimer;
 
 /**
  * A GUI for Fishball using FXML.
+ * The task file is loaded in the background while the window is built, and the time to the
+ * first frame is recorded by the {@link StartupTimer}. However the window is closed, the commands
+ * already entered are finished and their changes written before the application exits.
  */
 public class Main extends Application {
+    /**
+     * System property that closes the GUI as soon as its first frame is shown, so that the startup
+     * of the GUI can be run unattended, as when training the class-data-sharing archive.
+     */
+    public static final String EXIT_AFTER_FIRST_FRAME = "fishball.exitAfterFirstFrame";
 
     private Fishball fishball = new Fishball("../../../data/fishball.txt");
+    /** The controller of the window, or null until it has been loaded. */
+    private MainWindow mainWindow;
 
     @Override
     public void start(Stage stage) {
+        long start = StartupTimer.now();
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource("/view/MainWindow.fxml"));
             AnchorPane ap = fxmlLoader.load();
@@ -22,10 +35,35 @@ public class Main extends Application {
             stage.setScene(scene);
             stage.setMinHeight(220);
             stage.setMinWidth(417);
-            fxmlLoader.<MainWindow>getController().setFishball(fishball); // inject the Fishball instance
+            mainWindow = fxmlLoader.<MainWindow>getController();
+            mainWindow.setFishball(fishball); // inject the Fishball instance
             stage.show();
+            // The first layout pulse after showing the stage is the last step before its first frame is drawn
+            scene.addPostLayoutPulseListener(new Runnable() {
+                @Override
+                public void run() {
+                    scene.removePostLayoutPulseListener(this);
+                    StartupTimer.record(StartupTimer.Phase.FIRST_FRAME, start);
+                    if (Boolean.getBoolean(EXIT_AFTER_FIRST_FRAME)) {
+                        Platform.exit();
+                    }
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Finishes the commands already entered and writes their changes, whether the window was
+     * closed by bye or by the window manager.
+     */
+    @Override
+    public void stop() {
+        if (mainWindow != null) {
+            mainWindow.close();
+        } else {
+            fishball.close();
+        }
+    }
 }
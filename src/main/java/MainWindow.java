@@ -1,11 +1,21 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import commands.CommandDispatcher;
 import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 /**
@@ -18,17 +28,23 @@ import javafx.stage.Stage;
  * - Injection of the Fishball instance
  * - Processing user input and displaying responses
  *
+ * The conversation is shown in a ListView, which only creates DialogBoxes for the messages in
+ * view and reuses them as the list is scrolled. The messages themselves are kept in a
+ * {@link DialogHistory}, which spills all but the newest to disk, so neither the scene graph nor
+ * memory grows with the length of the session.
+ *
+ * Commands run on a single background thread, one at a time in the order they were entered, so
+ * a long listing or a slow disk never freezes the window. Each command is shown as soon as it is
+ * entered and its response once it is ready; a progress indicator is shown while any response
+ * is outstanding, and further commands can be entered meanwhile.
+ *
  * @author r-a-y-y-a
  * @version 1.0
  */
 public class MainWindow extends AnchorPane {
-    /** ScrollPane that provides scrollable view of the dialog container. */
+    /** ListView that shows the messages of the conversation. */
     @FXML
-    private ScrollPane scrollPane;
-
-    /** VBox container that holds all DialogBox components. */
-    @FXML
-    private VBox dialogContainer;
+    private ListView<DialogHistory.Message> dialogList;
 
     /** TextField where users enter their input messages. */
     @FXML
@@ -38,26 +54,123 @@ public class MainWindow extends AnchorPane {
     @FXML
     private Button sendButton;
 
+    /** Indicator shown while commands are waiting for their responses. */
+    @FXML
+    private ProgressIndicator pendingIndicator;
+
     /** Reference to the Fishball chatbot instance. */
     private Fishball fishball;
 
     /** Reference to the primary stage for closing the window. */
     private Stage stage;
 
-    /** Image displayed for user messages in the dialog. */
-    private Image userImage = new Image(this.getClass().getResourceAsStream("/images/user.jpg"));
+    /** Image displayed for user messages in the dialog, decoded in the background. */
+    private Image userImage = new Image(this.getClass().getResource("/images/user.jpg").toExternalForm(), true);
+
+    /** Image displayed for Fishball bot messages in the dialog, decoded in the background. */
+    private Image fishballImage = new Image(this.getClass().getResource("/images/fishball.jpeg").toExternalForm(),
+            true);
+
+    /** Every message of the session, shown by dialogList. */
+    private final DialogHistory history = new DialogHistory(DialogHistory.DEFAULT_CAPACITY,
+            Path.of(System.getProperty("java.io.tmpdir")));
+
+    /** The history as the items of dialogList. */
+    private final HistoryItems items = new HistoryItems(history);
+
+    /** Runs the commands entered, one at a time and in order, off the JavaFX Application Thread. */
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "fishball-commands");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    /** Image displayed for Fishball bot messages in the dialog. */
-    private Image fishballImage = new Image(this.getClass().getResourceAsStream("/images/fishball.jpeg"));
+    /** Number of commands entered whose responses have not been shown yet. */
+    private int pendingCount;
+
+    /**
+     * HistoryItems presents a DialogHistory as an observable list, so that a ListView reads
+     * only the messages it shows, from memory or from disk.
+     */
+    private static class HistoryItems extends ObservableListBase<DialogHistory.Message> {
+        private final DialogHistory history;
+
+        HistoryItems(DialogHistory history) {
+            this.history = history;
+        }
+
+        @Override
+        public DialogHistory.Message get(int index) {
+            return history.get(index);
+        }
+
+        @Override
+        public int size() {
+            return history.size();
+        }
+
+        /**
+         * Appends a message to the history and tells the list's listeners about it.
+         */
+        void append(boolean isUser, String text) {
+            int index = history.size();
+            history.add(new DialogHistory.Message(isUser, text));
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        }
+    }
+
+    /**
+     * DialogCell shows a message as a DialogBox. Each cell keeps one DialogBox for each
+     * speaker, created when first needed, and changes its text for each message it shows.
+     */
+    private class DialogCell extends ListCell<DialogHistory.Message> {
+        private DialogBox userBox;
+        private DialogBox fishballBox;
+
+        DialogCell() {
+            // Keep the cell from widening the list, so that messages wrap to its width
+            setPrefWidth(0);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
+
+        @Override
+        protected void updateItem(DialogHistory.Message message, boolean empty) {
+            super.updateItem(message, empty);
+            if (empty || message == null) {
+                setGraphic(null);
+                return;
+            }
+            DialogBox box;
+            if (message.isUser()) {
+                if (userBox == null) {
+                    userBox = DialogBox.getUserDialog(message.getText(), userImage);
+                    userBox.prefWidthProperty().bind(widthProperty());
+                }
+                box = userBox;
+            } else {
+                if (fishballBox == null) {
+                    fishballBox = DialogBox.getFishballDialog(message.getText(), fishballImage);
+                    fishballBox.prefWidthProperty().bind(widthProperty());
+                }
+                box = fishballBox;
+            }
+            box.setText(message.getText());
+            setGraphic(box);
+        }
+    }
 
     /**
      * Initializes the MainWindow after its FXML components have been loaded.
-     * Binds the scroll pane's vertical value to track the dialog container's height
-     * automatically, allowing the view to scroll to the latest message.
+     * Shows the dialog history in the dialog list, one recycled DialogCell per visible message.
      */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(items);
+        dialogList.setCellFactory(list -> new DialogCell());
+        dialogList.setFocusTraversable(false);
+        pendingIndicator.setVisible(false);
     }
 
     /**
@@ -81,32 +194,83 @@ public class MainWindow extends AnchorPane {
     }
 
     /**
-     * Handles user input by processing it through the Fishball chatbot
-     * and displaying both the user message and the bot response as DialogBox components.
+     * Handles user input by showing it and submitting it to Fishball for processing.
      *
      * This method:
      * - Retrieves text from the userInput TextField
-     * - Sends it to Fishball for processing
-     * - Creates dialog boxes for both user input and bot response
-     * - Appends them to the dialog container
+     * - Appends it to the dialog history and scrolls the dialog list to it
      * - Clears the input field
-     * - Checks if the application should close (bye command) and closes the stage if needed
+     * - Submits it to the command thread, which hands the response back to showResponse()
+     *   on the JavaFX Application Thread
+     * - Shows the pending indicator until the response arrives
      *
      * This method is triggered by the FXML sendButton click event.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = fishball.getResponse(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getFishballDialog(response, fishballImage)
-        );
+        items.append(true, input);
+        dialogList.scrollTo(items.size() - 1);
         userInput.clear();
+        pendingCount++;
+        pendingIndicator.setVisible(true);
+        commandExecutor.execute(() -> {
+            String response;
+            try {
+                response = fishball.getResponse(input);
+            } catch (RuntimeException e) {
+                System.err.println("Error running command: " + e.getMessage());
+                e.printStackTrace();
+                response = CommandDispatcher.ERROR_PREFIX + "Something went wrong running that command.";
+            }
+            String shown = response;
+            boolean isRunning = fishball.isRunning();
+            Platform.runLater(() -> showResponse(shown, isRunning));
+        });
+    }
 
-        // Close the window if the bye command was executed
-        if (!fishball.isRunning()) {
+    /**
+     * Shows the response to a command, hiding the pending indicator if no other command is
+     * waiting, and closes the application if the command was bye.
+     *
+     * @param response the response to show
+     * @param isRunning whether Fishball is still running after the command
+     */
+    private void showResponse(String response, boolean isRunning) {
+        pendingCount--;
+        pendingIndicator.setVisible(pendingCount > 0);
+        items.append(false, response);
+        dialogList.scrollTo(items.size() - 1);
+
+        // Close the window if the bye command was executed, dropping any command entered after it
+        if (!isRunning) {
+            commandExecutor.shutdownNow();
             Platform.exit();
         }
     }
+
+    /**
+     * Waits for the commands already entered to finish, so that none is cut short when the window
+     * closes, then closes Fishball, writing their changes, and deletes the dialog history.
+     * Called by {@link Main#stop()} however the window is closed.
+     */
+    public void close() {
+        commandExecutor.shutdown();
+        try {
+            if (!commandExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Gave up waiting for the last commands to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (fishball != null) {
+            fishball.close();
+        }
+        try {
+            history.close();
+        } catch (IOException e) {
+            System.err.println("Could not delete dialog history: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 }
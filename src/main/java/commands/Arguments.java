@@ -0,0 +1,126 @@
+package commands;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Arguments is a tokenized view of a command line. The input is split on single spaces, exactly
+ * like {@code input.split(" ")}, but tokens are only recorded as offsets into the input, so a
+ * token is not turned into a String unless a command asks for one.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class Arguments {
+    private final String input;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int count;
+
+    /**
+     * Constructs an Arguments view over the given input.
+     *
+     * @param input the command line, already trimmed
+     */
+    public Arguments(String input) {
+        assert input != null : "input must not be null";
+        this.input = input;
+        int start = 0;
+        for (int i = 0; i <= input.length(); i++) {
+            if (i == input.length() || input.charAt(i) == ' ') {
+                addToken(start, i);
+                start = i + 1;
+            }
+        }
+        // Like String.split, trailing empty tokens are dropped
+        while (count > 1 && starts[count - 1] == ends[count - 1]) {
+            count--;
+        }
+    }
+
+    /**
+     * Returns the whole command line.
+     *
+     * @return the input
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the number of tokens, including the verb.
+     *
+     * @return the number of tokens
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns a token as a String.
+     *
+     * @param i the index of the token, where 0 is the verb
+     * @return the token
+     * @throws IndexOutOfBoundsException if there is no such token
+     */
+    public String get(int i) {
+        Objects.checkIndex(i, count);
+        return input.substring(starts[i], ends[i]);
+    }
+
+    /**
+     * Checks whether a token equals the given word, without creating a String for the token.
+     *
+     * @param i the index of the token
+     * @param word the word to compare with
+     * @return true if the token exists and equals the word
+     */
+    public boolean is(int i, String word) {
+        return i < count && ends[i] - starts[i] == word.length()
+                && input.regionMatches(starts[i], word, 0, word.length());
+    }
+
+    /**
+     * Parses a token as a decimal integer, without creating a String for the token.
+     *
+     * @param i the index of the token
+     * @return the value of the token
+     * @throws IndexOutOfBoundsException if there is no such token
+     * @throws NumberFormatException if the token is not an integer
+     */
+    public int intAt(int i) {
+        Objects.checkIndex(i, count);
+        return Integer.parseInt(input, starts[i], ends[i], 10);
+    }
+
+    /**
+     * Returns the offset in the input at which a token starts.
+     *
+     * @param i the index of the token
+     * @return the offset of the token, or the length of the input if there is no such token
+     */
+    public int offset(int i) {
+        return i < count ? starts[i] : input.length();
+    }
+
+    /**
+     * Returns the input from the start of a token to the end of the line, with surrounding
+     * whitespace removed. Spacing between the tokens is kept as typed.
+     *
+     * @param i the index of the first token
+     * @return the rest of the line, or an empty string if there is no such token
+     */
+    public String from(int i) {
+        return i < count ? input.substring(starts[i]).trim() : "";
+    }
+
+    private void addToken(int start, int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+}
@@ -0,0 +1,24 @@
+package commands;
+
+import exceptions.InvalidCommandException;
+import utils.Storage;
+import utils.TaskList;
+import utils.UI;
+
+/**
+ * ByeCommand ends the session by responding with the exit message, once every change has been
+ * durably written.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class ByeCommand implements Command {
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws InvalidCommandException {
+        if (args.count() != 1) {
+            throw new InvalidCommandException(CommandDispatcher.UNKNOWN_COMMAND);
+        }
+        storage.flush();
+        return UI.EXIT_MESSAGE;
+    }
+}
@@ -0,0 +1,56 @@
+package commands;
+
+import java.io.IOException;
+
+import exceptions.FishballException;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * Command is a single verb understood by Fishball, such as todo or list.
+ * Implementations are registered with a {@link CommandDispatcher} under their verb and are
+ * handed the already tokenized input, so that each one only deals with its own arguments.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public interface Command {
+    /**
+     * Executes the command.
+     *
+     * @param args the tokenized input, with the verb as token 0
+     * @param record the TaskList to act on
+     * @param storage the Storage to persist changes to
+     * @return the response to show the user
+     * @throws FishballException if the input is invalid; the message is shown to the user
+     */
+    String execute(Arguments args, TaskList record, Storage storage) throws FishballException;
+
+    /**
+     * Executes the command, writing the response to out. Commands whose responses can be large
+     * write them piece by piece as they are produced; they must check their input before writing
+     * anything, so that an invalid command writes nothing. The default writes the response of
+     * {@link #execute(Arguments, TaskList, Storage)}.
+     *
+     * @param args the tokenized input, with the verb as token 0
+     * @param record the TaskList to act on
+     * @param storage the Storage to persist changes to
+     * @param out where to write the response
+     * @throws FishballException if the input is invalid; the message is shown to the user
+     * @throws IOException if writing to out fails
+     */
+    default void execute(Arguments args, TaskList record, Storage storage, Appendable out)
+            throws FishballException, IOException {
+        out.append(execute(args, record, storage));
+    }
+
+    /**
+     * Returns whether the command only reads the TaskList, so that it may run concurrently
+     * with other read-only commands.
+     *
+     * @return true if the command never changes the TaskList or the Storage
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
+}
@@ -0,0 +1,132 @@
+package commands;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import exceptions.InvalidCommandException;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * CommandDispatcher routes a command line to the {@link Command} registered for its verb.
+ * Verbs are looked up in a hash map, so dispatch takes the same time however many commands
+ * there are, and new commands can be added with {@link #register(String, Command)}.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class CommandDispatcher {
+    /** Prefix of every error response. */
+    public static final String ERROR_PREFIX = "OOPS! Come on fishball! ";
+    /** Message for a verb that is not registered or is used in a way it does not support. */
+    public static final String UNKNOWN_COMMAND = "I don't recognize that command. Please use: "
+            + "todo, deadline, event, list, find, mark, unmark, or bye.";
+
+    private final HashMap<String, Command> commands = new HashMap<>();
+
+    /**
+     * Constructs a CommandDispatcher with all of Fishball's commands registered.
+     */
+    public CommandDispatcher() {
+        register("bye", new ByeCommand());
+        register("list", new ListCommand());
+        register("reminder", new ReminderCommand());
+        register("find", new FindCommand());
+        register("delete", new DeleteCommand());
+        register("mark", new MarkCommand());
+        register("unmark", new UnmarkCommand());
+        register("todo", new TodoCommand());
+        register("deadline", new DeadlineCommand());
+        register("event", new EventCommand());
+        register("import", new ImportCommand(this));
+    }
+
+    /**
+     * Registers a command under a verb, replacing any command already registered for it.
+     *
+     * @param verb the first word of the command line that selects the command
+     * @param command the command to run
+     */
+    public void register(String verb, Command command) {
+        assert verb != null && command != null : "verb and command must not be null";
+        commands.put(verb, command);
+    }
+
+    /**
+     * Removes the command registered for a verb, so that using the verb is an unknown command.
+     *
+     * @param verb the verb to remove
+     */
+    public void unregister(String verb) {
+        commands.remove(verb);
+    }
+
+    /**
+     * Returns whether the input names a read-only command. Input that does not name a
+     * command at all is also read-only, since dispatching it only produces an error.
+     *
+     * @param input the command line
+     * @return true if dispatching the input cannot change the TaskList or the Storage
+     */
+    public boolean isReadOnly(String input) {
+        String trimmed = input.trim();
+        int end = trimmed.indexOf(' ');
+        Command command = commands.get(end < 0 ? trimmed : trimmed.substring(0, end));
+        return command == null || command.isReadOnly();
+    }
+
+    /**
+     * Runs the command named by the first word of the input.
+     * Errors are returned as responses starting with {@link #ERROR_PREFIX}.
+     *
+     * @param input the command line
+     * @param record the TaskList to act on
+     * @param storage the Storage to persist changes to
+     * @return the response to show the user
+     */
+    public String dispatch(String input, TaskList record, Storage storage) {
+        StringBuilder out = new StringBuilder();
+        try {
+            dispatch(input, record, storage, out);
+        } catch (IOException e) {
+            // Appending to a StringBuilder never fails
+            throw new AssertionError(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Runs the command named by the first word of the input, writing its response to out as it
+     * is produced. Commands check their input before writing anything, so an error is written
+     * instead of a response, starting with {@link #ERROR_PREFIX}.
+     *
+     * @param input the command line
+     * @param record the TaskList to act on
+     * @param storage the Storage to persist changes to
+     * @param out where to write the response
+     * @return true if the command succeeded, false if an error was written
+     * @throws IOException if writing to out fails
+     */
+    public boolean dispatch(String input, TaskList record, Storage storage, Appendable out) throws IOException {
+        try {
+            input = input.trim();
+            if (input.isEmpty()) {
+                out.append(ERROR_PREFIX).append("This is an empty input! Please enter a command!");
+                return false;
+            }
+            Arguments args = new Arguments(input);
+            Command command = commands.get(args.get(0));
+            if (command == null) {
+                throw new InvalidCommandException(UNKNOWN_COMMAND);
+            }
+            command.execute(args, record, storage, out);
+            return true;
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            // Commands report invalid input as FishballExceptions; anything unexpected is shown the same way
+            out.append(ERROR_PREFIX).append(e.getMessage());
+            return false;
+        }
+    }
+}
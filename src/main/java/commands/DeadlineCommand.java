@@ -0,0 +1,42 @@
+package commands;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import exceptions.MissingParameterException;
+import tasks.Deadline;
+import tasks.Task;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * DeadlineCommand adds a deadline given as {@code deadline <task> /by <dd-MM-yyyy HHmm>}.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class DeadlineCommand implements Command {
+    private static final String FORMAT = "Please provide a deadline in the format: "
+            + "deadline <task> /by <dd-MM-yyyy HHmm>";
+    private static final int BY = 1;
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws MissingParameterException {
+        FieldScanner fields = new FieldScanner(args.getInput(), args.offset(1), "/by");
+        String task = fields.get(FieldScanner.DESCRIPTION);
+        String deadline = fields.get(BY);
+        if (task.isEmpty() || !fields.has(BY) || deadline.isEmpty()) {
+            throw new MissingParameterException(FORMAT);
+        }
+        try {
+            LocalDateTime deadlineDate = Deadline.parseDate(deadline);
+            Task curr = new Deadline(task, false, deadlineDate);
+            record.add(curr);
+            storage.storeAdded(curr, record);
+            return "Got it. I've added this task: \n    " + curr
+                    + "\nNow you have " + record.size() + " tasks in the list.";
+        } catch (DateTimeParseException e) {
+            throw new MissingParameterException(FORMAT + " (e.g., 2019-10-15 1400)");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package commands;
+
+import exceptions.FishballException;
+import exceptions.InvalidIndexException;
+import exceptions.MissingParameterException;
+import tasks.Task;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * DeleteCommand removes the task with the given number.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class DeleteCommand implements Command {
+    private static final String FORMAT = "Please provide a delete in the format: delete <task number>";
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws FishballException {
+        if (args.count() != 2) {
+            throw new MissingParameterException(FORMAT);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(args.get(1).trim()) - 1;
+        } catch (NumberFormatException e) {
+            throw new MissingParameterException(FORMAT);
+        }
+        if (index < 0 || index >= record.size()) {
+            throw new InvalidIndexException("Task number is out of range! Please provide a valid task number.");
+        }
+        Task delete = record.get(index);
+        record.remove(index);
+        storage.storeDeleted(delete, record);
+        return "Noted. I've removed this task:\n  " + delete
+                + "\nNow you have " + record.size() + " tasks in the list.";
+    }
+}
@@ -0,0 +1,46 @@
+package commands;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import exceptions.MissingParameterException;
+import tasks.Event;
+import tasks.Task;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * EventCommand adds an event given as
+ * {@code event <task> /from <dd-MM-yyyy HHmm> /to <dd-MM-yyyy HHmm>}.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class EventCommand implements Command {
+    private static final String FORMAT = "Please provide an event in the format: "
+            + "event <task> /from <dd-MM-yyyy HHmm> /to <dd-MM-yyyy HHmm>";
+    private static final int FROM = 1;
+    private static final int TO = 2;
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws MissingParameterException {
+        FieldScanner fields = new FieldScanner(args.getInput(), args.offset(1), "/from", "/to");
+        String task = fields.get(FieldScanner.DESCRIPTION);
+        String start = fields.get(FROM);
+        String end = fields.get(TO);
+        if (task.isEmpty() || !fields.has(FROM) || start.isEmpty() || !fields.has(TO) || end.isEmpty()) {
+            throw new MissingParameterException(FORMAT);
+        }
+        try {
+            LocalDateTime startDate = Event.parseDate(start);
+            LocalDateTime endDate = Event.parseDate(end);
+            Task curr = new Event(task, false, startDate, endDate);
+            record.add(curr);
+            storage.storeAdded(curr, record);
+            return "Got it. I've added this task: \n    " + curr
+                    + "\nNow you have " + record.size() + " tasks in the list.";
+        } catch (DateTimeParseException e) {
+            throw new MissingParameterException(FORMAT);
+        }
+    }
+}
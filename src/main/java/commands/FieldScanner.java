@@ -0,0 +1,119 @@
+package commands;
+
+import java.util.Arrays;
+
+/**
+ * FieldScanner splits the arguments of a command into a description followed by fields that
+ * are introduced by marker words, such as {@code /by} or {@code /from} and {@code /to}.
+ * The input is scanned once, and each field is only recorded as an offset range into it, so
+ * a field costs a single String allocation when it is asked for and nothing otherwise.
+ *
+ * A marker is recognized only as a whole space-separated word, and only after the marker
+ * before it: for the markers {@code /from} and {@code /to}, a {@code /to} before the
+ * {@code /from} is part of the description. A field runs up to the next marker that was
+ * found, or to the end of the input.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class FieldScanner {
+    /** Index of the description, the text before the first marker. */
+    public static final int DESCRIPTION = 0;
+
+    private final CharSequence input;
+    private final int[] starts;
+    private final int[] ends;
+
+    /**
+     * Scans the input for the given markers, in order.
+     *
+     * @param input the command line
+     * @param from the offset at which the description begins
+     * @param markers the marker words, in the order in which they must appear
+     */
+    public FieldScanner(CharSequence input, int from, String... markers) {
+        assert input != null && markers != null : "input and markers must not be null";
+        this.input = input;
+        this.starts = new int[markers.length + 1];
+        this.ends = new int[markers.length + 1];
+        Arrays.fill(starts, -1);
+        Arrays.fill(ends, -1);
+        int length = input.length();
+        int field = DESCRIPTION;
+        starts[field] = Math.min(from, length);
+        for (int i = starts[field]; i < length && field < markers.length; i++) {
+            if (i > from && input.charAt(i - 1) != ' ') {
+                continue;
+            }
+            String marker = markers[field];
+            int end = i + marker.length();
+            if (end <= length && (end == length || input.charAt(end) == ' ') && matches(i, marker)) {
+                ends[field] = i;
+                field++;
+                starts[field] = end;
+                i = end - 1;
+            }
+        }
+        ends[field] = length;
+    }
+
+    /**
+     * Checks whether a field's marker was found.
+     *
+     * @param field the field index: 1 for the first marker, 2 for the second, and so on
+     * @return true if the marker was present
+     */
+    public boolean has(int field) {
+        return starts[field] >= 0;
+    }
+
+    /**
+     * Returns the offset at which a field starts, before any trimming.
+     *
+     * @param field the field index, or {@link #DESCRIPTION}
+     * @return the start offset, or -1 if the field's marker was not found
+     */
+    public int start(int field) {
+        return starts[field];
+    }
+
+    /**
+     * Returns the offset at which a field ends, before any trimming.
+     *
+     * @param field the field index, or {@link #DESCRIPTION}
+     * @return the end offset, exclusive, or -1 if the field's marker was not found
+     */
+    public int end(int field) {
+        return ends[field];
+    }
+
+    /**
+     * Returns a field with surrounding whitespace removed.
+     *
+     * @param field the field index, or {@link #DESCRIPTION}
+     * @return the field's text, or an empty string if its marker was not found
+     */
+    public String get(int field) {
+        if (!has(field)) {
+            return "";
+        }
+        int start = starts[field];
+        int end = ends[field];
+        while (start < end && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && input.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return input.subSequence(start, end).toString();
+    }
+
+    private boolean matches(int offset, String marker) {
+        for (int k = 0; k < marker.length(); k++) {
+            if (input.charAt(offset + k) != marker.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package commands;
+
+import java.util.ArrayList;
+
+import exceptions.MissingParameterException;
+import utils.Storage;
+import utils.TaskList;
+import utils.TaskListVersion;
+
+/**
+ * FindCommand lists the tasks whose descriptions contain the given keywords.
+ * Keywords are grouped by "/or": every keyword of a group must match, and any group may match.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class FindCommand implements Command {
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws MissingParameterException {
+        ArrayList<ArrayList<String>> groups = parseKeywords(args);
+        if (groups == null) {
+            throw new MissingParameterException("Please provide a keyword in the format: find <keyword>");
+        }
+        // The indices found are only valid in the version that found them
+        TaskListVersion view = record.version();
+        ArrayList<Integer> matches = view.find(groups);
+        if (matches.isEmpty()) {
+            return "No matching tasks found.";
+        }
+        StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
+        for (int i : matches) {
+            sb.append((i + 1)).append(". ").append(view.get(i)).append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits the keywords into groups separated by "/or".
+     *
+     * @return the keyword groups, or null if there is no keyword or a group is empty
+     */
+    private static ArrayList<ArrayList<String>> parseKeywords(Arguments args) {
+        ArrayList<ArrayList<String>> groups = new ArrayList<>();
+        ArrayList<String> group = new ArrayList<>();
+        for (int i = 1; i < args.count(); i++) {
+            if (args.is(i, "/or")) {
+                if (group.isEmpty()) {
+                    return null;
+                }
+                groups.add(group);
+                group = new ArrayList<>();
+            } else if (!args.is(i, "")) {
+                group.add(args.get(i));
+            }
+        }
+        if (group.isEmpty()) {
+            return null;
+        }
+        groups.add(group);
+        return groups;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
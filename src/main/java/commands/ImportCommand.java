@@ -0,0 +1,83 @@
+package commands;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import exceptions.FishballException;
+import exceptions.InvalidCommandException;
+import exceptions.MissingParameterException;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * ImportCommand runs every line of a file as a command, as one batch.
+ * The commands run against a copy of the list and their changes are persisted together once
+ * they have all succeeded, so importing n tasks writes to disk once rather than n times.
+ * If any line fails, the failing lines are reported and nothing is changed.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class ImportCommand implements Command {
+    private final CommandDispatcher dispatcher;
+
+    /**
+     * Constructs an ImportCommand that runs lines through the given dispatcher.
+     *
+     * @param dispatcher the dispatcher to run each line with
+     */
+    public ImportCommand(CommandDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws FishballException {
+        String path = args.from(1);
+        if (path.isEmpty()) {
+            throw new MissingParameterException("Please provide a file in the format: import <file>");
+        }
+        if (storage.isBatching()) {
+            throw new InvalidCommandException("An imported file cannot import another file.");
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Path.of(path));
+        } catch (IOException e) {
+            throw new FishballException("I couldn't read " + path + ": " + e.getMessage());
+        }
+
+        TaskList batch = record.copy();
+        StringBuilder failures = new StringBuilder();
+        int commands = 0;
+        storage.beginBatch();
+        try {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                commands++;
+                String response = dispatcher.dispatch(line, batch, storage);
+                if (response.startsWith(CommandDispatcher.ERROR_PREFIX)) {
+                    failures.append("\nline ").append(i + 1).append(" (").append(line).append("): ")
+                            .append(response, CommandDispatcher.ERROR_PREFIX.length(), response.length());
+                }
+            }
+            if (failures.length() > 0) {
+                throw new FishballException("Nothing was imported from " + path
+                        + " because these lines failed:" + failures);
+            }
+            storage.commitBatch(batch);
+        } finally {
+            // Anything not committed above is discarded
+            if (storage.isBatching()) {
+                storage.rollbackBatch();
+            }
+        }
+        record.replaceWith(batch);
+        return "Imported " + commands + (commands == 1 ? " command" : " commands") + " from " + path
+                + "\nNow you have " + record.size() + " tasks in the list.";
+    }
+}
@@ -0,0 +1,84 @@
+package commands;
+
+import java.io.IOException;
+
+import exceptions.FishballException;
+import exceptions.InvalidCommandException;
+import exceptions.InvalidIndexException;
+import utils.Storage;
+import utils.TaskList;
+import utils.TaskListVersion;
+
+/**
+ * ListCommand lists every task with its number, or one page of them.
+ * "list" lists every task; "list 3" lists the third page of {@link #DEFAULT_PAGE_SIZE} tasks,
+ * and "list 3 20" the third page of 20. Tasks keep their numbers on every page.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class ListCommand implements Command {
+    /** Number of tasks on a page when no page size is given. */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final String USAGE = "Just type 'list' to see your tasks, "
+            + "or 'list <page> [page size]' to see one page of them.";
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws FishballException {
+        StringBuilder sb = new StringBuilder();
+        try {
+            execute(args, record, storage, sb);
+        } catch (IOException e) {
+            // Appending to a StringBuilder never fails
+            throw new AssertionError(e);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void execute(Arguments args, TaskList record, Storage storage, Appendable out)
+            throws FishballException, IOException {
+        if (args.count() > 3) {
+            throw new InvalidCommandException("The list command takes at most a page number and a page size! "
+                    + USAGE);
+        }
+        int page = 1;
+        int pageSize = Integer.MAX_VALUE;
+        if (args.count() > 1) {
+            pageSize = DEFAULT_PAGE_SIZE;
+            try {
+                page = args.intAt(1);
+                if (args.count() > 2) {
+                    pageSize = args.intAt(2);
+                }
+            } catch (NumberFormatException e) {
+                throw new InvalidCommandException("Page numbers and sizes must be whole numbers! " + USAGE);
+            }
+            if (page < 1 || pageSize < 1) {
+                throw new InvalidCommandException("Page numbers and sizes start from 1! " + USAGE);
+            }
+        }
+        // Read one version throughout, in case the list changes while it is being listed
+        TaskListVersion view = record.version();
+        int pages = Math.max(1, (int) ((view.size() + (long) pageSize - 1) / pageSize));
+        if (page > pages) {
+            throw new InvalidIndexException("Page " + page + " is out of range! Your list has " + pages
+                    + (pages == 1 ? " page." : " pages."));
+        }
+        int from = (page - 1) * pageSize;
+        int to = (int) Math.min((long) from + pageSize, view.size());
+        if (args.count() == 1) {
+            out.append("Here are the tasks in your list:\n");
+        } else {
+            out.append("Here are the tasks in your list (page ").append(String.valueOf(page)).append(" of ")
+                    .append(String.valueOf(pages)).append("):\n");
+        }
+        view.appendNumbered(out, from, to);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package commands;
+
+import exceptions.FishballException;
+import exceptions.InvalidCommandException;
+import exceptions.InvalidIndexException;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * MarkCommand marks the task with the given number as done.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class MarkCommand implements Command {
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws FishballException {
+        int index = taskIndex(args, record);
+        record.mark(index);
+        storage.storeMarked(record.get(index), record);
+        return "Nice! I've marked this task as done\n" + record.get(index);
+    }
+
+    /**
+     * Reads the task number of a mark or unmark command.
+     *
+     * @param args the command line, which must consist of the verb and a task number
+     * @param record the TaskList the number refers to
+     * @return the zero-based index of the task
+     * @throws FishballException if the task number is missing, malformed or out of range
+     */
+    static int taskIndex(Arguments args, TaskList record) throws FishballException {
+        if (args.count() != 2) {
+            throw new InvalidCommandException(CommandDispatcher.UNKNOWN_COMMAND);
+        }
+        int index;
+        try {
+            index = args.intAt(1) - 1;
+        } catch (NumberFormatException e) {
+            throw new InvalidIndexException("Please provide a valid task number.");
+        }
+        if (index < 0 || index >= record.size()) {
+            throw new InvalidIndexException("Task number is out of range! Please provide a valid task number.");
+        }
+        return index;
+    }
+}
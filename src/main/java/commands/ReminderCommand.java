@@ -0,0 +1,53 @@
+package commands;
+
+import java.util.ArrayList;
+
+import exceptions.MissingParameterException;
+import tasks.Task;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * ReminderCommand lists the pending deadlines and events due within a number of days,
+ * 7 unless given.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class ReminderCommand implements Command {
+    private static final String FORMAT = "Please provide a reminder in the format: reminder [days]";
+
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws MissingParameterException {
+        if (args.count() > 2) {
+            throw new MissingParameterException(FORMAT);
+        }
+        int days = 7;
+        if (args.count() == 2) {
+            try {
+                days = args.intAt(1);
+            } catch (NumberFormatException e) {
+                days = -1;
+            }
+            if (days < 0) {
+                throw new MissingParameterException(FORMAT);
+            }
+        }
+        String window = "within the next " + days + (days == 1 ? " day" : " days");
+        ArrayList<Task> upcoming = record.getUpcoming(days);
+        if (upcoming == null || upcoming.size() == 0) {
+            return "No upcoming deadlines or events " + window + ".";
+        }
+        StringBuilder rsb = new StringBuilder("Here are the upcoming "
+                + "deadlines/events " + window + ":\n");
+        for (int i = 0; i < upcoming.size(); i++) {
+            rsb.append((i + 1)).append(". ").append(upcoming.get(i)).append("\n");
+        }
+        return rsb.toString();
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+}
@@ -0,0 +1,28 @@
+package commands;
+
+import exceptions.EmptyTaskException;
+import tasks.Task;
+import tasks.Todo;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * TodoCommand adds a todo with the rest of the line as its description.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class TodoCommand implements Command {
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws EmptyTaskException {
+        String task = args.from(1);
+        if (task.isEmpty()) {
+            throw new EmptyTaskException("The description of a todo cannot be empty!");
+        }
+        Task curr = new Todo(task, false);
+        record.add(curr);
+        storage.storeAdded(curr, record);
+        return "Got it. I've added this task: \n    " + curr
+                + "\nNow you have " + record.size() + " tasks in the list.";
+    }
+}
@@ -0,0 +1,21 @@
+package commands;
+
+import exceptions.FishballException;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * UnmarkCommand marks the task with the given number as not done.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class UnmarkCommand implements Command {
+    @Override
+    public String execute(Arguments args, TaskList record, Storage storage) throws FishballException {
+        int index = MarkCommand.taskIndex(args, record);
+        record.unmark(index);
+        storage.storeUnmarked(record.get(index), record);
+        return "Ok, I've marked this task as not done yet\n" + record.get(index);
+    }
+}
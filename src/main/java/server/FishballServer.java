@@ -0,0 +1,228 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import commands.CommandDispatcher;
+
+/**
+ * FishballServer lets several users share one task list over local TCP connections.
+ * Each connection is served on its own thread, a virtual thread when the runtime has them,
+ * and every command it sends goes through a shared {@link TaskEngine}.
+ *
+ * The protocol is line based: the client sends one command per line, and the server answers
+ * with the lines of the response followed by a line containing only {@value #END_OF_RESPONSE}.
+ * A response line that starts with a dot is sent with an extra dot in front of it. The server
+ * closes the connection after answering bye.
+ *
+ * A server can also give every user a task list of their own through a
+ * {@link TaskEngineRegistry}. Clients then begin with {@code user <id>}, and may switch users
+ * the same way, before sending commands. User ids are not authenticated, so this separates the
+ * lists of cooperating users on one machine rather than protecting them from each other.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class FishballServer {
+    /** Port the server listens on when none is given. */
+    public static final int DEFAULT_PORT = 4816;
+    /** Line that ends every response. */
+    public static final String END_OF_RESPONSE = ".";
+    /** Command that selects the user whose task list later commands act on. */
+    public static final String USER_COMMAND = "user";
+
+    /** The shared engine, or null if every user has their own. */
+    private final TaskEngine engine;
+    /** The engines of every user, or null if they all share one. */
+    private final TaskEngineRegistry registry;
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final Thread acceptor;
+
+    /**
+     * Constructs a FishballServer listening on the loopback address.
+     * Connections are not accepted until {@link #start()} is called.
+     *
+     * @param filepath the path to the file where tasks are stored
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public FishballServer(String filepath, int port) throws IOException {
+        this(new TaskEngine(filepath), null, port);
+    }
+
+    /**
+     * Constructs a FishballServer listening on the loopback address that gives each user their
+     * own task list. Connections are not accepted until {@link #start()} is called.
+     *
+     * @param registry the task lists of every user
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public FishballServer(TaskEngineRegistry registry, int port) throws IOException {
+        this(null, registry, port);
+    }
+
+    private FishballServer(TaskEngine engine, TaskEngineRegistry registry, int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.engine = engine;
+        this.registry = registry;
+        this.connections = newConnectionExecutor();
+        this.acceptor = new Thread(this::acceptConnections, "fishball-acceptor");
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting connections, waits briefly for open ones to finish and writes every
+     * pending change.
+     */
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close server socket: " + e.getMessage());
+            e.printStackTrace();
+        }
+        connections.shutdown();
+        try {
+            if (!connections.awaitTermination(5, TimeUnit.SECONDS)) {
+                connections.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (engine != null) {
+            engine.close();
+        } else {
+            registry.close();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                connections.execute(() -> serve(client));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Failed to accept connection: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        try (client;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                BufferedWriter out = new BufferedWriter(
+                        new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            // Responses larger than the buffer go out in several writes, which Nagle's algorithm would delay
+            client.setTcpNoDelay(true);
+            String line;
+            String userId = null;
+            while ((line = in.readLine()) != null) {
+                String response;
+                String[] words = line.trim().split(" ");
+                if (registry == null) {
+                    response = engine.process(line);
+                } else if (words[0].equals(USER_COMMAND)) {
+                    boolean isValid = words.length == 2 && TaskEngineRegistry.isValidUserId(words[1]);
+                    userId = isValid ? words[1] : userId;
+                    response = isValid
+                            ? "Hello, " + userId + "! What can I do for you?"
+                            : CommandDispatcher.ERROR_PREFIX + "A user id is 1 to 64 letters, digits, _ or -. "
+                                    + "Please use: user <id>";
+                } else if (userId == null) {
+                    response = CommandDispatcher.ERROR_PREFIX + "Please tell me who you are first: user <id>";
+                } else {
+                    response = registry.process(userId, line);
+                }
+                for (String responseLine : response.split("\n")) {
+                    if (responseLine.startsWith(".")) {
+                        out.write('.');
+                    }
+                    out.write(responseLine);
+                    out.newLine();
+                }
+                out.write(END_OF_RESPONSE);
+                out.newLine();
+                out.flush();
+                if (line.trim().equals("bye")) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away; its commands have already been applied
+        }
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, falling back to a pool
+     * of daemon platform threads on runtimes without virtual threads.
+     */
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "fishball-client-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * Usage: {@code FishballServer [port] [file]}, or {@code FishballServer [port] --users <directory>
+     * [maxResident]} to give each user a task list of their own.
+     *
+     * @param args optionally the port, followed by the task file or by the users' directory
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String filepath = args.length > 1 ? args[1] : "../../../data/fishball.txt";
+        FishballServer server;
+        if (filepath.equals("--users")) {
+            filepath = args.length > 2 ? args[2] : "../../../data/users";
+            int maxResident = args.length > 3 ? Integer.parseInt(args[3]) : TaskEngineRegistry.DEFAULT_MAX_RESIDENT;
+            server = new FishballServer(new TaskEngineRegistry(filepath, maxResident,
+                    TaskEngineRegistry.DEFAULT_IDLE_TIMEOUT_MILLIS), port);
+        } else {
+            server = new FishballServer(filepath, port);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
+        System.out.println("Fishball is serving " + filepath + " on port " + server.getPort());
+    }
+}
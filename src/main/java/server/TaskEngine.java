@@ -0,0 +1,87 @@
+package server;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+import commands.CommandDispatcher;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * TaskEngine runs commands against one TaskList on behalf of many threads.
+ * Read-only commands such as list, find and reminder take no lock at all: each reads one
+ * immutable version of the list, so they run concurrently with each other and with a write.
+ * Every other command holds the write lock, so writes are applied and stored one at a time.
+ *
+ * The import command is not available: it reads a file named by the client on the server's
+ * file system and reports the lines it cannot run, so it would let any client read any file the
+ * server can, including the task files of other users.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class TaskEngine {
+    private final CommandDispatcher commands = new CommandDispatcher();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Storage storage;
+    private final TaskList record;
+
+    /**
+     * Constructs a TaskEngine over a journaled, write-behind Storage for the given file, which
+     * writes and compacts on threads of its own.
+     *
+     * @param filepath the path to the file where tasks are stored
+     */
+    public TaskEngine(String filepath) {
+        this(filepath, null, null);
+    }
+
+    /**
+     * Constructs a TaskEngine over a journaled, write-behind Storage for the given file, which
+     * writes and compacts on the given executors. Engines that share the executors need no
+     * threads of their own; closing an engine does not shut them down.
+     *
+     * @param filepath the path to the file where tasks are stored
+     * @param writer the executor to write mutations on, or null for a thread of the engine's own
+     * @param compactor the executor to compact the journal on, or null for a thread of the engine's own
+     */
+    public TaskEngine(String filepath, ScheduledExecutorService writer, ExecutorService compactor) {
+        commands.unregister("import");
+        this.storage = new Storage(filepath, true, compactor);
+        this.storage.startWriteBehind(Storage.DEFAULT_WRITE_QUEUE_CAPACITY, Storage.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                writer);
+        this.record = storage.loadTaskList();
+    }
+
+    /**
+     * Processes a single command and returns the response.
+     *
+     * @param input the command line
+     * @return the response to show the user
+     */
+    public String process(String input) {
+        assert input != null : "input must not be null";
+        if (commands.isReadOnly(input)) {
+            return commands.dispatch(input, record, storage);
+        }
+        writeLock.lock();
+        try {
+            return commands.dispatch(input, record, storage);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every pending change and closes the Storage.
+     */
+    public void close() {
+        writeLock.lock();
+        try {
+            storage.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package server;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * TaskEngineRegistry gives every user an independent task list, stored in its own file under a
+ * common directory and served by its own {@link TaskEngine}, so users never wait for each other.
+ *
+ * Engines are opened on a user's first command and kept in least recently used order. At most
+ * {@code maxResident} of them stay open: when another one is opened, the least recently used
+ * engines that are not running a command are closed, which writes their pending changes. Engines
+ * that have not been used for the idle timeout are closed as well. The registry lock only guards
+ * this bookkeeping; loading and closing files happen outside of it.
+ *
+ * All engines write their changes and compact their journals on two small thread pools owned by
+ * the registry, so the number of threads does not grow with the number of users.
+ *
+ * Engines offer no command that reads a file named by the user, so a command cannot name the
+ * file of another user's task list. The registry does not authenticate anyone, though: whoever
+ * calls {@link #process(String, String)} chooses the user id.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public class TaskEngineRegistry {
+    /** Number of engines kept open when no limit is given. */
+    public static final int DEFAULT_MAX_RESIDENT = 1024;
+    /** How long an unused engine stays open when no timeout is given. */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000;
+
+    private static final Pattern USER_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    /** Number of threads in each of the pools shared by the engines. */
+    private static final int BACKGROUND_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final File directory;
+    private final int maxResident;
+    private final long idleTimeoutMillis;
+    /** Open shards in least recently used order. */
+    private final LinkedHashMap<String, Shard> shards = new LinkedHashMap<>(16, 0.75f, true);
+    /** Shards that were unloaded but are still writing their changes, by user id. */
+    private final HashMap<String, Shard> closing = new HashMap<>();
+    private final ScheduledExecutorService sweeper;
+    /** Writes the changes of every engine. */
+    private final ScheduledExecutorService writer;
+    /** Compacts the journals of every engine. */
+    private final ExecutorService compactor;
+
+    /**
+     * Constructs a TaskEngineRegistry with the default limits.
+     *
+     * @param directory the directory holding one task file per user
+     */
+    public TaskEngineRegistry(String directory) {
+        this(directory, DEFAULT_MAX_RESIDENT, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Constructs a TaskEngineRegistry.
+     *
+     * @param directory the directory holding one task file per user
+     * @param maxResident the number of engines that may be open at once while not in use
+     * @param idleTimeoutMillis how long an engine may go unused before it is closed, or 0 to
+     *                          close engines only when the limit is reached
+     */
+    public TaskEngineRegistry(String directory, int maxResident, long idleTimeoutMillis) {
+        assert maxResident > 0 : "maxResident must be positive";
+        this.directory = new File(directory);
+        this.directory.mkdirs();
+        this.maxResident = maxResident;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.writer = Executors.newScheduledThreadPool(BACKGROUND_THREADS, daemonThreads("fishball-writer"));
+        this.compactor = Executors.newFixedThreadPool(BACKGROUND_THREADS, daemonThreads("fishball-compactor"));
+        if (idleTimeoutMillis > 0) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "fishball-shard-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleTimeoutMillis / 2);
+            sweeper.scheduleAtFixedRate(this::unloadIdle, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * Returns whether the given string may be used as a user id: 1 to 64 letters, digits,
+     * underscores or hyphens, so that it is also a safe file name.
+     *
+     * @param userId the string to check
+     * @return true if the string is a valid user id
+     */
+    public static boolean isValidUserId(String userId) {
+        return userId != null && USER_ID.matcher(userId).matches();
+    }
+
+    /**
+     * Processes a single command against the task list of a user, opening it if needed.
+     *
+     * @param userId the user whose task list the command acts on
+     * @param input the command line
+     * @return the response to show the user
+     * @throws IllegalArgumentException if the user id is not valid
+     */
+    public String process(String userId, String input) {
+        if (!isValidUserId(userId)) {
+            throw new IllegalArgumentException("Invalid user id: " + userId);
+        }
+        Shard shard = acquire(userId);
+        try {
+            return shard.open().process(input);
+        } finally {
+            release(shard);
+        }
+    }
+
+    /**
+     * Returns the number of users whose task lists are open.
+     *
+     * @return the number of resident engines
+     */
+    public int getResidentCount() {
+        synchronized (shards) {
+            return shards.size();
+        }
+    }
+
+    /**
+     * Returns whether the task list of a user is open.
+     *
+     * @param userId the user to check
+     * @return true if the user's engine is resident
+     */
+    public boolean isResident(String userId) {
+        synchronized (shards) {
+            return shards.containsKey(userId);
+        }
+    }
+
+    /**
+     * Returns the users with open engines, least recently used first.
+     *
+     * @return a copy of the resident user ids
+     */
+    public ArrayList<String> getResidentUsers() {
+        synchronized (shards) {
+            return new ArrayList<>(shards.keySet());
+        }
+    }
+
+    /**
+     * Closes every engine that has not been used for the idle timeout and is not in use.
+     */
+    public void unloadIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+        ArrayList<Shard> evicted = new ArrayList<>();
+        synchronized (shards) {
+            Iterator<Shard> it = shards.values().iterator();
+            while (it.hasNext()) {
+                Shard shard = it.next();
+                if (shard.users == 0 && shard.lastUsed <= cutoff) {
+                    it.remove();
+                    closing.put(shard.userId, shard);
+                    evicted.add(shard);
+                }
+            }
+        }
+        unload(evicted);
+    }
+
+    /**
+     * Stops the idle sweeper, closes every engine, writing all pending changes, and stops the
+     * threads the engines shared.
+     */
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        ArrayList<Shard> evicted;
+        synchronized (shards) {
+            evicted = new ArrayList<>(shards.values());
+            for (Shard shard : evicted) {
+                closing.put(shard.userId, shard);
+            }
+            shards.clear();
+        }
+        unload(evicted);
+        writer.shutdown();
+        compactor.shutdown();
+    }
+
+    /**
+     * Returns the shard of a user, marked as in use, evicting idle shards beyond the limit.
+     */
+    private Shard acquire(String userId) {
+        ArrayList<Shard> evicted = new ArrayList<>();
+        Shard shard;
+        synchronized (shards) {
+            shard = shards.get(userId);
+            if (shard == null) {
+                shard = new Shard(userId, closing.get(userId));
+                shards.put(userId, shard);
+                Iterator<Shard> it = shards.values().iterator();
+                while (shards.size() > maxResident && it.hasNext()) {
+                    Shard candidate = it.next();
+                    if (candidate.users == 0 && candidate != shard) {
+                        it.remove();
+                        closing.put(candidate.userId, candidate);
+                        evicted.add(candidate);
+                    }
+                }
+            }
+            shard.users++;
+            shard.lastUsed = System.currentTimeMillis();
+        }
+        unload(evicted);
+        return shard;
+    }
+
+    private void release(Shard shard) {
+        synchronized (shards) {
+            shard.users--;
+            shard.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns a factory of daemon threads named after the given prefix and a counter.
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void unload(ArrayList<Shard> evicted) {
+        for (Shard shard : evicted) {
+            shard.close();
+            synchronized (shards) {
+                closing.remove(shard.userId, shard);
+            }
+        }
+    }
+
+    /**
+     * Shard is the engine of one user together with its bookkeeping, which is guarded by the
+     * registry lock. The engine itself is opened and closed under the shard's own lock.
+     */
+    private final class Shard {
+        private final String userId;
+        /** The shard this one replaces while it is still closing, or null. */
+        private Shard predecessor;
+        private TaskEngine engine;
+        private boolean isClosed;
+        private int users;
+        private long lastUsed;
+
+        private Shard(String userId, Shard predecessor) {
+            this.userId = userId;
+            this.predecessor = predecessor;
+        }
+
+        private synchronized TaskEngine open() {
+            assert !isClosed : "a closed shard is never handed out";
+            if (engine == null) {
+                // Wait until the previous engine has written the file before reading it
+                closePredecessor();
+                engine = new TaskEngine(new File(directory, userId + ".txt").getPath(), writer, compactor);
+            }
+            return engine;
+        }
+
+        private synchronized void close() {
+            closePredecessor();
+            if (!isClosed && engine != null) {
+                engine.close();
+            }
+            isClosed = true;
+        }
+
+        private void closePredecessor() {
+            if (predecessor != null) {
+                predecessor.close();
+                predecessor = null;
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package tasks;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Objects;
 
 /**
  * Deadline represents a task with a deadline date/time.
@@ -27,7 +31,7 @@ public class Deadline extends Task {
      * @param deadline the deadline date/time for this task
      */
     public Deadline(String task, boolean done, LocalDateTime deadline) {
-        super("d", task, done);
+        super(TaskType.DEADLINE, task, done);
         this.deadline = deadline;
     }
 
@@ -40,6 +44,28 @@ public class Deadline extends Task {
         return this.deadline;
     }
 
+    @Override
+    public LocalDateTime startTime() {
+        return this.deadline;
+    }
+
+    @Override
+    public LocalDateTime dueTime() {
+        return this.deadline;
+    }
+
+    @Override
+    public void serializeTo(Appendable out) throws IOException {
+        super.serializeTo(out);
+        out.append(',').append(this.deadline.toString());
+    }
+
+    @Override
+    public void serializeTo(ByteBuffer out) {
+        out.putLong(this.deadline.toEpochSecond(ZoneOffset.UTC));
+        out.putLong(0);
+    }
+
     /**
      * Parses a date string in the format "dd-MM-yyyy HHmm" to a LocalDateTime object.
      *
@@ -52,14 +78,19 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        String out = "[D]";
-        if (this.isDone()) {
-            out = out + "[X]";
-        } else {
-            out = out + "[ ]";
-        }
-        out = out + " " + this.getTask() + "(by: " + deadline.format(OUTPUT_FORMATTER) + "hrs)";
-        return out;
+    public boolean equals(Object o) {
+        return super.equals(o) && Objects.equals(this.deadline, ((Deadline) o).deadline);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    protected StringBuilder render(StringBuilder out) {
+        super.render(out).append("(by: ");
+        OUTPUT_FORMATTER.formatTo(this.deadline, out);
+        return out.append("hrs)");
     }
 }
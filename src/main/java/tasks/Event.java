@@ -1,8 +1,12 @@
 package tasks;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Objects;
 
 /**
  * Event represents a task that spans from a start date/time to an end date/time.
@@ -29,7 +33,7 @@ public class Event extends Task {
      * @param end the end date/time of the event
      */
     public Event(String task, boolean done, LocalDateTime start, LocalDateTime end) {
-        super("e", task, done);
+        super(TaskType.EVENT, task, done);
         this.start = start;
         this.end = end;
     }
@@ -52,6 +56,28 @@ public class Event extends Task {
         return this.end;
     }
 
+    @Override
+    public LocalDateTime startTime() {
+        return this.start;
+    }
+
+    @Override
+    public LocalDateTime dueTime() {
+        return this.end;
+    }
+
+    @Override
+    public void serializeTo(Appendable out) throws IOException {
+        super.serializeTo(out);
+        out.append(',').append(this.start.toString()).append(',').append(this.end.toString());
+    }
+
+    @Override
+    public void serializeTo(ByteBuffer out) {
+        out.putLong(this.start.toEpochSecond(ZoneOffset.UTC));
+        out.putLong(this.end.toEpochSecond(ZoneOffset.UTC));
+    }
+
     /**
      * Parses a date string in the format "dd-MM-yyyy HHmm" to a LocalDateTime object.
      *
@@ -64,15 +90,25 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        String out = "[E]";
-        if (this.isDone()) {
-            out = out + "[X]";
-        } else {
-            out = out + "[ ]";
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
         }
-        out = out + " " + this.getTask() + "(from: " + this.start.format(OUTPUT_FORMATTER) + "hrs"
-                + " to: " + this.end.format(OUTPUT_FORMATTER) + "hrs)";
-        return out;
+        Event other = (Event) o;
+        return Objects.equals(this.start, other.start) && Objects.equals(this.end, other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    protected StringBuilder render(StringBuilder out) {
+        super.render(out).append("(from: ");
+        OUTPUT_FORMATTER.formatTo(this.start, out);
+        out.append("hrs to: ");
+        OUTPUT_FORMATTER.formatTo(this.end, out);
+        return out.append("hrs)");
     }
 }
@@ -1,25 +1,36 @@
 package tasks;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
 /**
  * Task is an abstract base class representing a task in the task management system.
  * It provides common functionality for all task types (Todo, Deadline, Event).
  *
+ * Tasks are compared by value: a TaskList creates a new Task each time one is read, so two
+ * reads of the same task are equal but not the same object.
+ *
  * @author r-a-y-y-a
  * @version 1.0
  */
 public class Task {
     private String task;
     private boolean done;
-    private final String type;
+    private final TaskType type;
+    private int id = -1;
+    /** The line this task is shown as, or null until it is next shown. */
+    private String rendered;
 
     /**
      * Constructs a Task with the specified type, description, and completion status.
      *
-     * @param type the type of task (e.g., "t" for Todo, "d" for Deadline, "e" for Event)
+     * @param type the type of task
      * @param task the description of the task
      * @param done whether the task is marked as completed
      */
-    public Task(String type, String task, boolean done) {
+    public Task(TaskType type, String task, boolean done) {
         this.task = task;
         this.done = done;
         this.type = type;
@@ -30,10 +41,29 @@ public class Task {
      *
      * @return the task type
      */
-    public String getType() {
+    public TaskType getType() {
         return this.type;
     }
 
+    /**
+     * Returns the stable id of this task, assigned when it is first added to a TaskList.
+     * The id does not change when other tasks are removed, unlike the task's position.
+     *
+     * @return the task id, or -1 if the task has not been added to a list
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the stable id of this task.
+     *
+     * @param id the task id
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Returns the description of this task.
      *
@@ -48,6 +78,7 @@ public class Task {
      */
     public void mark() {
         this.done = true;
+        this.rendered = null;
     }
 
     /**
@@ -55,6 +86,7 @@ public class Task {
      */
     public void unmark() {
         this.done = false;
+        this.rendered = null;
     }
 
     /**
@@ -65,5 +97,97 @@ public class Task {
     public boolean isDone() {
         return this.done;
     }
-}
 
+    /**
+     * Returns the line this task is shown as, such as "[T][ ] read book".
+     * The line is rendered once and reused until the task is marked or unmarked.
+     *
+     * @return the rendered line
+     */
+    @Override
+    public String toString() {
+        String line = this.rendered;
+        if (line == null) {
+            line = render(new StringBuilder()).toString();
+            this.rendered = line;
+        }
+        return line;
+    }
+
+    /**
+     * Appends the line this task is shown as: its type, its status and its description,
+     * followed by whatever the type of task adds.
+     *
+     * @param out where to append the line
+     * @return out
+     */
+    protected StringBuilder render(StringBuilder out) {
+        return out.append('[').append(Character.toUpperCase(this.type.getCode())).append("][")
+                .append(this.done ? 'X' : ' ').append("] ").append(this.task);
+    }
+
+    /**
+     * Returns the time this task begins: the due date of a deadline or the start of an event.
+     *
+     * @return the start time, or null if the task has no date
+     */
+    public LocalDateTime startTime() {
+        return null;
+    }
+
+    /**
+     * Returns the time this task is due: the due date of a deadline or the end of an event.
+     *
+     * @return the due time, or null if the task has no date
+     */
+    public LocalDateTime dueTime() {
+        return null;
+    }
+
+    /**
+     * Appends this task as a line of the storage file, without a line separator:
+     * the type code, description and completion status, followed by any dates.
+     *
+     * @param out where to append the line
+     * @throws IOException if appending fails
+     */
+    public void serializeTo(Appendable out) throws IOException {
+        out.append(this.type.getCode()).append(',').append(this.task).append(',')
+                .append(String.valueOf(this.done));
+    }
+
+    /**
+     * Puts the two date fields of a binary snapshot record: the dates of this task as epoch
+     * seconds in UTC, or zero where the task has no such date.
+     *
+     * @param out the buffer to put the fields into
+     */
+    public void serializeTo(ByteBuffer out) {
+        out.putLong(0);
+        out.putLong(0);
+    }
+
+    /**
+     * Checks whether another object is a task of the same type with the same id, description,
+     * completion status and dates.
+     *
+     * @param o the object to compare with
+     * @return true if the object is an equal task
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || o.getClass() != getClass()) {
+            return false;
+        }
+        Task other = (Task) o;
+        return this.id == other.id && this.done == other.done && Objects.equals(this.task, other.task);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.type, this.id, this.task);
+    }
+}
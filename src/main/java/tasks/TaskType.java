@@ -0,0 +1,48 @@
+package tasks;
+
+/**
+ * TaskType enumerates the kinds of task, each with the single-character code that identifies it
+ * in the storage file.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public enum TaskType {
+    TODO('t'),
+    DEADLINE('d'),
+    EVENT('e');
+
+    private final char code;
+
+    TaskType(char code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the code of this type in the storage file.
+     *
+     * @return the type code
+     */
+    public char getCode() {
+        return this.code;
+    }
+
+    /**
+     * Returns the type with the given storage code.
+     *
+     * @param code the type code
+     * @return the type, or null if no type has that code
+     */
+    public static TaskType fromCode(char code) {
+        switch (code) {
+        case 't':
+            return TODO;
+        case 'd':
+            return DEADLINE;
+        case 'e':
+            return EVENT;
+        default:
+            return null;
+        }
+    }
+}
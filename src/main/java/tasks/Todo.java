@@ -15,19 +15,6 @@ public class Todo extends Task {
      * @param done whether the task is marked as completed
      */
     public Todo(String task, boolean done) {
-        super("t", task, done);
-    }
-
-    @Override
-    public String toString() {
-        String out = "[T]";
-        if (this.isDone()) {
-            out = out + "[X]";
-        } else {
-            out = out + "[ ]";
-        }
-        out = out + " " + this.getTask();
-        return out;
+        super(TaskType.TODO, task, done);
     }
 }
-
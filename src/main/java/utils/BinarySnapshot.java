@@ -0,0 +1,242 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import tasks.Task;
+
+/**
+ * BinarySnapshot reads and writes the versioned binary snapshot format used by Storage.
+ *
+ * A snapshot starts with a fixed-width file header (magic, version, journal generation, record count),
+ * followed by one record per task. Each record has a fixed-width header (type, done flag, description
+ * length, task id and two epoch-second date slots) followed by the UTF-8 bytes of the description.
+ * Version 1 records have no id field; their tasks are numbered from 0 in file order.
+ * Snapshots are read whole into a heap buffer, so loading does no text parsing, and records can be
+ * decoded on demand through {@link TaskRecords}. They are not memory-mapped, since a lazily loaded
+ * list keeps its buffer for as long as it lives and Windows cannot replace a mapped file, which
+ * every new snapshot does. They are written through a FileChannel from a direct buffer that the
+ * caller owns and reuses, and forced to the device before returning. Writes are not synchronized
+ * here; each Storage orders the writes of its own snapshot, so Storages never wait on each other.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class BinarySnapshot {
+    static final int MAGIC = 0x46534842; // "FSHB"
+    static final short VERSION = 2;
+    static final int FILE_HEADER_SIZE = 20;
+    static final int RECORD_HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE_V1 = 24;
+    private static final int ID = 8;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    static final byte TODO = 't';
+    static final byte DEADLINE = 'd';
+    static final byte EVENT = 'e';
+
+    private BinarySnapshot() {
+    }
+
+    /**
+     * Returns the record header size used by the given format version.
+     *
+     * @param version the snapshot format version
+     * @return the record header size in bytes
+     */
+    static int recordHeaderSize(short version) {
+        return version == 1 ? RECORD_HEADER_SIZE_V1 : RECORD_HEADER_SIZE;
+    }
+
+    /**
+     * Checks whether the given file starts with the binary snapshot magic number.
+     *
+     * @param file the file to check
+     * @return true if the file is a binary snapshot
+     */
+    static boolean isBinary(File file) {
+        if (file.length() < FILE_HEADER_SIZE) {
+            return false;
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the given file is a binary snapshot that was written completely,
+     * with every record present and nothing after the last one.
+     *
+     * @param file the file to check
+     * @return true if the file is a complete binary snapshot
+     */
+    static boolean isComplete(File file) {
+        if (!isBinary(file)) {
+            return false;
+        }
+        try {
+            open(file);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the journal generation recorded in the header of a binary snapshot.
+     *
+     * @param file the snapshot file
+     * @return the journal generation covered by the snapshot
+     * @throws IOException if the file cannot be read
+     */
+    static long readGeneration(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.readInt();
+            raf.readShort();
+            raf.readShort();
+            return raf.readLong();
+        }
+    }
+
+    /**
+     * Reads a binary snapshot and indexes the offsets of its records without decoding them.
+     *
+     * @param file the snapshot file
+     * @return a lazily decoding view over the snapshot's records
+     * @throws IOException if the file cannot be read or has an unsupported version
+     */
+    static TaskRecords open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    throw new IOException("Truncated snapshot: " + file);
+                }
+            }
+            buf.flip();
+            if (buf.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary snapshot: " + file);
+            }
+            short version = buf.getShort(4);
+            if (version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            long generation = buf.getLong(8);
+            int count = buf.getInt(16);
+            int headerSize = recordHeaderSize(version);
+            int[] offsets = new int[count];
+            int[] ids = version == 1 ? null : new int[count];
+            int offset = FILE_HEADER_SIZE;
+            for (int i = 0; i < count; i++) {
+                if (offset + headerSize > buf.limit()) {
+                    throw new IOException("Truncated snapshot: " + file);
+                }
+                offsets[i] = offset;
+                if (ids != null) {
+                    ids[i] = buf.getInt(offset + ID);
+                }
+                offset += headerSize + buf.getInt(offset + 4);
+            }
+            if (offset != buf.limit()) {
+                throw new IOException("Truncated snapshot: " + file);
+            }
+            return new TaskRecords(buf, offsets, ids, generation, version);
+        }
+    }
+
+    /**
+     * Reads every task of a binary snapshot into the given list.
+     *
+     * @param file the snapshot file
+     * @param record the list to append the tasks to
+     * @return the journal generation covered by the snapshot
+     * @throws IOException if the file cannot be read or has an unsupported version
+     */
+    static long read(File file, ArrayList<Task> record) throws IOException {
+        TaskRecords records = open(file);
+        record.ensureCapacity(record.size() + records.size());
+        for (int i = 0; i < records.size(); i++) {
+            record.add(records.materialize(i));
+        }
+        return records.getGeneration();
+    }
+
+    /**
+     * Allocates a direct buffer to pass to {@link #write(File, ArrayList, long, ByteBuffer)}.
+     * It is small enough for a process with many Storages to keep one for each of them.
+     *
+     * @return a new write buffer
+     */
+    static ByteBuffer allocateWriteBuffer() {
+        return ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    }
+
+    /**
+     * Writes the given tasks as a binary snapshot.
+     *
+     * @param file the file to write to
+     * @param tasks the tasks to write; a task whose id is not larger than the previous one's
+     *              is written with the next id instead, so that ids in the file always increase
+     * @param generation the journal generation covered by the snapshot
+     * @param buf the buffer to write through, which no other write may use at the same time
+     * @throws IOException if the file cannot be written
+     */
+    static void write(File file, ArrayList<Task> tasks, long generation, ByteBuffer buf) throws IOException {
+        assert buf.capacity() >= RECORD_HEADER_SIZE : "write buffer must hold a record header";
+        buf.clear();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buf.putInt(MAGIC);
+            buf.putShort(VERSION);
+            buf.putShort((short) 0);
+            buf.putLong(generation);
+            buf.putInt(tasks.size());
+            int lastId = -1;
+            for (int i = 0; i < tasks.size(); i++) {
+                Task t = tasks.get(i);
+                assert t != null : "Task in tasks must not be null";
+                byte[] description = t.getTask().getBytes(StandardCharsets.UTF_8);
+                lastId = t.getId() > lastId ? t.getId() : lastId + 1;
+                if (buf.remaining() < RECORD_HEADER_SIZE) {
+                    drain(channel, buf);
+                }
+                buf.put((byte) t.getType().getCode());
+                buf.put((byte) (t.isDone() ? 1 : 0));
+                buf.putShort((short) 0);
+                buf.putInt(description.length);
+                buf.putInt(lastId);
+                buf.putInt(0);
+                t.serializeTo(buf);
+                for (int written = 0; written < description.length;) {
+                    if (!buf.hasRemaining()) {
+                        drain(channel, buf);
+                    }
+                    int length = Math.min(buf.remaining(), description.length - written);
+                    buf.put(description, written, length);
+                    written += length;
+                }
+            }
+            drain(channel, buf);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes out everything in the buffer and clears it for reuse.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * IdSet is a sorted set of task ids backed by a primitive int array.
+ * Ids are normally added in increasing order, which makes adding an append.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class IdSet {
+    private int[] ids = new int[4];
+    private int size;
+
+    /**
+     * Returns the number of ids in the set.
+     *
+     * @return the number of ids
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the id at the given rank.
+     *
+     * @param i the rank, from 0 for the smallest id
+     * @return the id
+     */
+    int get(int i) {
+        return ids[i];
+    }
+
+    /**
+     * Checks whether the set contains an id.
+     *
+     * @param id the id
+     * @return true if the id is in the set
+     */
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /**
+     * Adds an id to the set.
+     *
+     * @param id the id to add
+     */
+    void add(int id) {
+        int i = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (i >= 0) {
+            return;
+        }
+        i = -i - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(ids, i, ids, i + 1, size - i);
+        ids[i] = id;
+        size++;
+    }
+
+    /**
+     * Removes an id from the set.
+     *
+     * @param id the id to remove
+     */
+    void remove(int id) {
+        int i = Arrays.binarySearch(ids, 0, size, id);
+        if (i < 0) {
+            return;
+        }
+        System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+        size--;
+    }
+
+    /**
+     * Returns the ids in increasing order.
+     *
+     * @return a new array holding the ids
+     */
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
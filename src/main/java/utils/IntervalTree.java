@@ -0,0 +1,181 @@
+package utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * IntervalTree indexes task ids by a [start, end] interval of epoch seconds, such as the span of
+ * an event or, with start and end equal, the due date of a deadline.
+ * It is a treap ordered by start time in which every node also records the latest end time in
+ * its subtree, so that all tasks overlapping a range can be found in O(log n + k).
+ *
+ * The tree is persistent: add and remove return a new tree that shares every node off the
+ * search path with this one, so a tree never changes once it has been built.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class IntervalTree {
+    /** The tree without any tasks. */
+    static final IntervalTree EMPTY = new IntervalTree(null, 0);
+
+    private static final class Node {
+        private final int id;
+        private final int priority;
+        private final long start;
+        private final long end;
+        private final long maxEnd;
+        private final Node left;
+        private final Node right;
+
+        private Node(int id, long start, long end, int priority, Node left, Node right) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            long max = end;
+            if (left != null) {
+                max = Math.max(max, left.maxEnd);
+            }
+            if (right != null) {
+                max = Math.max(max, right.maxEnd);
+            }
+            this.maxEnd = max;
+        }
+
+        private Node with(Node left, Node right) {
+            return new Node(id, start, end, priority, left, right);
+        }
+    }
+
+    private final Node root;
+    private final int size;
+
+    private IntervalTree(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of tasks in the tree.
+     *
+     * @return the number of tasks
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a tree with a task added.
+     *
+     * @param id the id of the task to add
+     * @param start the start of its interval
+     * @param end the end of its interval
+     * @return the new tree
+     */
+    IntervalTree add(int id, long start, long end) {
+        Node added = new Node(id, start, end, ThreadLocalRandom.current().nextInt(), null, null);
+        return new IntervalTree(insert(root, added), size + 1);
+    }
+
+    /**
+     * Returns a tree without the task with the given id, which was added with the given start.
+     *
+     * @param id the id of the task to remove
+     * @param start the start of its interval
+     * @return the new tree, or this tree if the task is not in it
+     */
+    IntervalTree remove(int id, long start) {
+        Node removed = delete(root, id, start);
+        return removed == root ? this : new IntervalTree(removed, size - 1);
+    }
+
+    /**
+     * Calls the given action with the id of every task whose interval overlaps [from, to],
+     * ordered by start time.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, inclusive
+     * @param action the action to call
+     */
+    void overlapping(long from, long to, IntConsumer action) {
+        collect(root, from, to, action);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.start < node.start) {
+            Node left = insert(node.left, added);
+            if (left.priority > node.priority) {
+                // Rotate right
+                return left.with(left.left, node.with(left.right, node.right));
+            }
+            return node.with(left, node.right);
+        }
+        Node right = insert(node.right, added);
+        if (right.priority > node.priority) {
+            // Rotate left
+            return right.with(node.with(node.left, right.left), right.right);
+        }
+        return node.with(node.left, right);
+    }
+
+    /**
+     * Deletes from the subtree, returning its replacement, or the same node if the task is not in it.
+     */
+    private static Node delete(Node node, int id, long start) {
+        if (node == null) {
+            return null;
+        }
+        if (node.id == id) {
+            return merge(node.left, node.right);
+        }
+        int cmp = Long.compare(start, node.start);
+        if (cmp <= 0) {
+            Node left = delete(node.left, id, start);
+            if (left != node.left) {
+                return node.with(left, node.right);
+            }
+        }
+        // Tasks with equal start times may sit on either side after rotations
+        if (cmp >= 0) {
+            Node right = delete(node.right, id, start);
+            if (right != node.right) {
+                return node.with(node.left, right);
+            }
+        }
+        return node;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    private static void collect(Node node, long from, long to, IntConsumer action) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collect(node.left, from, to, action);
+        if (node.start > to) {
+            // Everything to the right starts even later
+            return;
+        }
+        if (node.end >= from) {
+            action.accept(node.id);
+        }
+        collect(node.right, from, to, action);
+    }
+}
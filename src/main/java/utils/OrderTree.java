@@ -0,0 +1,479 @@
+package utils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+import tasks.Task;
+
+/**
+ * OrderTree holds the ids of a TaskList in list order, each with its Task, and maps between ids
+ * and positions. Since ids are handed out in increasing order and new tasks are always appended,
+ * list order is also id order. The tree is a B+-tree whose leaves hold runs of ids and whose nodes
+ * record the number of ids and the largest id below them, so positional lookup, lookup by id and
+ * removal all take O(log n).
+ *
+ * The tree is persistent: nodes are never changed once built, and append, remove and setTask
+ * return a new tree that shares every node off the path they touched with this one. A tree can
+ * therefore be read by any number of threads while new versions are being derived from it.
+ * Leaves keep their tasks in {@link TaskColumns} rather than as Task objects, and create a Task
+ * whenever one is read. A leaf may leave tasks out, for ids whose tasks live elsewhere; such ids
+ * map to null.
+ *
+ * Each leaf also keeps the lines its tasks are shown as, rendered the first time the tree is
+ * listed. Since leaves are shared between trees, listing a tree derived from one that was
+ * listed only renders the lines of the leaves that changed.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class OrderTree {
+    /** The tree without any ids. */
+    static final OrderTree EMPTY = new OrderTree(new Leaf(new int[0], null));
+
+    private static final int LEAF_CAPACITY = 64;
+    private static final int BRANCH_CAPACITY = 32;
+
+    private abstract static class Node {
+        protected final int size;
+        protected final int maxId;
+
+        protected Node(int size, int maxId) {
+            this.size = size;
+            this.maxId = maxId;
+        }
+    }
+
+    private static final class Leaf extends Node {
+        private final int[] ids;
+        /** The tasks of the ids, or null if no id in the leaf has one. */
+        private final TaskColumns columns;
+        /** The rendered lines of the tasks, or null until the leaf is first listed. */
+        private volatile Lines lines;
+
+        private Leaf(int[] ids, TaskColumns columns) {
+            super(ids.length, ids.length == 0 ? -1 : ids[ids.length - 1]);
+            this.ids = ids;
+            this.columns = columns;
+        }
+
+        private Task taskAt(int i) {
+            return columns == null ? null : columns.taskAt(i, ids[i]);
+        }
+    }
+
+    /**
+     * The lines of a leaf, kept as one string with the offset at which each line ends.
+     */
+    private static final class Lines {
+        private final String text;
+        private final int[] ends;
+
+        private Lines(String text, int[] ends) {
+            this.text = text;
+            this.ends = ends;
+        }
+    }
+
+    private static final class Branch extends Node {
+        private final Node[] children;
+
+        private Branch(Node[] children) {
+            super(sizeOf(children), children[children.length - 1].maxId);
+            this.children = children;
+        }
+
+        private static int sizeOf(Node[] children) {
+            int size = 0;
+            for (Node child : children) {
+                size += child.size;
+            }
+            return size;
+        }
+    }
+
+    private final Node root;
+
+    private OrderTree(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds a tree holding the given ids, which must be in increasing order, without tasks.
+     *
+     * @param ids the ids in list order
+     * @param count the number of ids to take from the array
+     * @return a tree holding the ids
+     */
+    static OrderTree of(int[] ids, int count) {
+        return of(ids, null, count);
+    }
+
+    /**
+     * Builds a tree holding the given ids, which must be in increasing order, and their tasks.
+     *
+     * @param ids the ids in list order
+     * @param tasks the task of each id, or null to build a tree without tasks
+     * @param count the number of ids to take from the arrays
+     * @return a tree holding the ids
+     */
+    static OrderTree of(int[] ids, Task[] tasks, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        Node[] level = new Node[(count + LEAF_CAPACITY - 1) / LEAF_CAPACITY];
+        for (int i = 0; i < level.length; i++) {
+            int from = i * LEAF_CAPACITY;
+            int to = Math.min(count, from + LEAF_CAPACITY);
+            level[i] = new Leaf(Arrays.copyOfRange(ids, from, to),
+                    tasks == null ? null : TaskColumns.of(tasks, from, to));
+        }
+        while (level.length > 1) {
+            Node[] parents = new Node[(level.length + BRANCH_CAPACITY - 1) / BRANCH_CAPACITY];
+            for (int i = 0; i < parents.length; i++) {
+                int from = i * BRANCH_CAPACITY;
+                int to = Math.min(level.length, from + BRANCH_CAPACITY);
+                parents[i] = new Branch(Arrays.copyOfRange(level, from, to));
+            }
+            level = parents;
+        }
+        return new OrderTree(level[0]);
+    }
+
+    /**
+     * Returns the number of ids in the tree.
+     *
+     * @return the number of ids
+     */
+    int size() {
+        return root.size;
+    }
+
+    /**
+     * Returns the largest id in the tree.
+     *
+     * @return the last id, or -1 if the tree is empty
+     */
+    int lastId() {
+        return root.maxId;
+    }
+
+    /**
+     * Returns the id at the given position.
+     *
+     * @param position the zero-based position
+     * @return the id at that position
+     */
+    int get(int position) {
+        assert position >= 0 && position < root.size : "position out of range";
+        Node node = root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int i = 0;
+            while (position >= branch.children[i].size) {
+                position -= branch.children[i].size;
+                i++;
+            }
+            node = branch.children[i];
+        }
+        return ((Leaf) node).ids[position];
+    }
+
+    /**
+     * Returns the task of the id at the given position.
+     *
+     * @param position the zero-based position
+     * @return a new Task holding the task at that position, or null if the tree does not hold it
+     */
+    Task taskAt(int position) {
+        assert position >= 0 && position < root.size : "position out of range";
+        Node node = root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int i = 0;
+            while (position >= branch.children[i].size) {
+                position -= branch.children[i].size;
+                i++;
+            }
+            node = branch.children[i];
+        }
+        return ((Leaf) node).taskAt(position);
+    }
+
+    /**
+     * Returns the position of the given id.
+     *
+     * @param id the id to look up
+     * @return the zero-based position of the id, or -1 if it is not in the tree
+     */
+    int indexOf(int id) {
+        Node node = root;
+        int position = 0;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int i = 0;
+            while (i < branch.children.length && id > branch.children[i].maxId) {
+                position += branch.children[i].size;
+                i++;
+            }
+            if (i == branch.children.length) {
+                return -1;
+            }
+            node = branch.children[i];
+        }
+        int i = Arrays.binarySearch(((Leaf) node).ids, id);
+        return i < 0 ? -1 : position + i;
+    }
+
+    /**
+     * Returns a tree with an id appended, which must be larger than every id in this tree.
+     *
+     * @param id the id to append
+     * @param task the task of the id, or null
+     * @return the new tree
+     */
+    OrderTree append(int id, Task task) {
+        assert root.size == 0 || id > root.maxId : "ids must be appended in increasing order";
+        Node[] appended = append(root, id, task);
+        if (appended[1] == null) {
+            return new OrderTree(appended[0]);
+        }
+        return new OrderTree(new Branch(new Node[] {appended[0], appended[1]}));
+    }
+
+    /**
+     * Returns a tree without the given id.
+     *
+     * @param id the id to remove
+     * @return the new tree, or this tree if the id is not in it
+     */
+    OrderTree remove(int id) {
+        Node removed = remove(root, id);
+        if (removed == root) {
+            return this;
+        }
+        while (removed instanceof Branch && ((Branch) removed).children.length == 1) {
+            removed = ((Branch) removed).children[0];
+        }
+        return removed.size == 0 ? EMPTY : new OrderTree(removed);
+    }
+
+    /**
+     * Returns a tree in which the given id, which must be in this tree, has another task.
+     *
+     * @param id the id whose task to replace
+     * @param task the new task
+     * @return the new tree
+     */
+    OrderTree setTask(int id, Task task) {
+        assert indexOf(id) >= 0 : "id must be in the tree";
+        return new OrderTree(setTask(root, id, task));
+    }
+
+    /**
+     * Calls the given action with every id in list order.
+     *
+     * @param action the action to call
+     */
+    void forEach(IntConsumer action) {
+        forEachId(root, action);
+    }
+
+    /**
+     * Calls the given action with every id in list order, together with its task or null.
+     *
+     * @param action the action to call
+     */
+    void forEach(ObjIntConsumer<Task> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Appends the lines of the ids at positions [from, to) in list order, numbered from 1 by
+     * position and each followed by a line separator, such as "1. [T][ ] read book". Lines are
+     * appended as they are reached, and leaves outside the range are skipped without being read.
+     *
+     * @param out where to append the lines
+     * @param separator what to put between each number and its line
+     * @param from the position of the first line, inclusive
+     * @param to the position after the last line
+     * @param missing creates the tasks the tree does not hold, from their ids
+     * @throws IOException if appending fails
+     */
+    void appendNumbered(Appendable out, String separator, int from, int to, IntFunction<Task> missing)
+            throws IOException {
+        assert from >= 0 && from <= to && to <= root.size : "range out of bounds";
+        appendNumbered(root, 0, out, separator, from, to, missing);
+    }
+
+    private static void appendNumbered(Node node, int offset, Appendable out, String separator, int from, int to,
+            IntFunction<Task> missing) throws IOException {
+        if (node instanceof Branch) {
+            for (Node child : ((Branch) node).children) {
+                if (offset >= to) {
+                    return;
+                }
+                if (offset + child.size > from) {
+                    appendNumbered(child, offset, out, separator, from, to, missing);
+                }
+                offset += child.size;
+            }
+            return;
+        }
+        Lines lines = linesOf((Leaf) node, missing);
+        int last = Math.min(to - offset, node.size);
+        for (int i = Math.max(from - offset, 0); i < last; i++) {
+            int start = i == 0 ? 0 : lines.ends[i - 1];
+            out.append(String.valueOf(offset + i + 1)).append(separator)
+                    .append(lines.text, start, lines.ends[i]).append('\n');
+        }
+    }
+
+    /**
+     * Returns the lines of a leaf, rendering them on first use. Readers racing to render the
+     * same leaf render the same lines, so whichever is kept is correct.
+     */
+    private static Lines linesOf(Leaf leaf, IntFunction<Task> missing) {
+        Lines lines = leaf.lines;
+        if (lines != null) {
+            return lines;
+        }
+        StringBuilder text = new StringBuilder();
+        int[] ends = new int[leaf.size];
+        for (int i = 0; i < leaf.size; i++) {
+            Task task = leaf.taskAt(i);
+            text.append(task != null ? task : missing.apply(leaf.ids[i]));
+            ends[i] = text.length();
+        }
+        lines = new Lines(text.toString(), ends);
+        leaf.lines = lines;
+        return lines;
+    }
+
+    /**
+     * Appends to the subtree, returning its replacement and, if it had no room, a new right
+     * sibling holding the id.
+     */
+    private static Node[] append(Node node, int id, Task task) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            if (leaf.size == LEAF_CAPACITY) {
+                TaskColumns columns = task == null ? null : TaskColumns.absent(0).append(task);
+                return new Node[] {leaf, new Leaf(new int[] {id}, columns)};
+            }
+            int[] ids = Arrays.copyOf(leaf.ids, leaf.size + 1);
+            ids[leaf.size] = id;
+            TaskColumns columns = leaf.columns;
+            if (columns != null || task != null) {
+                columns = (columns == null ? TaskColumns.absent(leaf.size) : columns).append(task);
+            }
+            return new Node[] {new Leaf(ids, columns), null};
+        }
+        Branch branch = (Branch) node;
+        int last = branch.children.length - 1;
+        Node[] appended = append(branch.children[last], id, task);
+        Node[] children = branch.children.clone();
+        children[last] = appended[0];
+        if (appended[1] == null) {
+            return new Node[] {new Branch(children), null};
+        }
+        if (children.length < BRANCH_CAPACITY) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[last + 1] = appended[1];
+            return new Node[] {new Branch(children), null};
+        }
+        return new Node[] {new Branch(children), new Branch(new Node[] {appended[1]})};
+    }
+
+    /**
+     * Removes from the subtree, returning its replacement, or the same node if the id is not in it.
+     */
+    private static Node remove(Node node, int id) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = Arrays.binarySearch(leaf.ids, id);
+            if (i < 0) {
+                return leaf;
+            }
+            return new Leaf(without(leaf.ids, i), leaf.columns == null ? null : leaf.columns.without(i));
+        }
+        Branch branch = (Branch) node;
+        int i = 0;
+        while (i < branch.children.length && id > branch.children[i].maxId) {
+            i++;
+        }
+        if (i == branch.children.length) {
+            return branch;
+        }
+        Node child = remove(branch.children[i], id);
+        if (child == branch.children[i]) {
+            return branch;
+        }
+        if (child.size > 0) {
+            Node[] children = branch.children.clone();
+            children[i] = child;
+            return new Branch(children);
+        }
+        if (branch.children.length == 1) {
+            return child;
+        }
+        return new Branch(without(branch.children, i));
+    }
+
+    private static Node setTask(Node node, int id, Task task) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int i = Arrays.binarySearch(leaf.ids, id);
+            TaskColumns columns = leaf.columns == null ? TaskColumns.absent(leaf.size) : leaf.columns;
+            return new Leaf(leaf.ids, columns.with(i, task));
+        }
+        Branch branch = (Branch) node;
+        int i = 0;
+        while (id > branch.children[i].maxId) {
+            i++;
+        }
+        Node[] children = branch.children.clone();
+        children[i] = setTask(children[i], id, task);
+        return new Branch(children);
+    }
+
+    private static void forEachId(Node node, IntConsumer action) {
+        if (node instanceof Leaf) {
+            for (int id : ((Leaf) node).ids) {
+                action.accept(id);
+            }
+            return;
+        }
+        for (Node child : ((Branch) node).children) {
+            forEachId(child, action);
+        }
+    }
+
+    private static void forEach(Node node, ObjIntConsumer<Task> action) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            for (int i = 0; i < leaf.size; i++) {
+                action.accept(leaf.taskAt(i), leaf.ids[i]);
+            }
+            return;
+        }
+        for (Node child : ((Branch) node).children) {
+            forEach(child, action);
+        }
+    }
+
+    private static int[] without(int[] array, int i) {
+        int[] copy = new int[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, i);
+        System.arraycopy(array, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+
+    private static <T> T[] without(T[] array, int i) {
+        T[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+}
@@ -0,0 +1,109 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * StartupTimer records how long each phase of startup takes, so that cold-start regressions
+ * can be tracked. Times are measured from the start of the JVM. Since the task file is
+ * parsed in the background, the parse phase may overlap the phases after it.
+ *
+ * Once every phase has been recorded the times are reported on standard error, if the system
+ * property {@value #PROPERTY} is true, for example:
+ * <pre>
+ * java -Dfishball.startupTiming=true -jar fishball.jar
+ * </pre>
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class StartupTimer {
+    /** System property that turns on the report. */
+    public static final String PROPERTY = "fishball.startupTiming";
+
+    /**
+     * Phase enumerates the phases of startup, in the order they begin.
+     */
+    public enum Phase {
+        /** From the start of the process until the main method runs. */
+        JVM("jvm"),
+        /** Opening the storage and starting its writer. */
+        STORAGE_OPEN("storage open"),
+        /** Parsing the task file into a TaskList. */
+        PARSE("parse"),
+        /** From the start of UI setup until the first screen of output is shown. */
+        FIRST_FRAME("first frame");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final boolean IS_ENABLED = Boolean.getBoolean(PROPERTY);
+    /** Start of a phase that began when the JVM did, which is only looked up for the report. */
+    private static final long JVM_START = Long.MIN_VALUE;
+    /** The same moment on the nanoTime clock and the wall clock, to convert between them. */
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final long ORIGIN_MILLIS = System.currentTimeMillis();
+    private static final Map<Phase, long[]> PHASES = new EnumMap<>(Phase.class);
+    private static boolean isReported;
+
+    private StartupTimer() {
+    }
+
+    /**
+     * Returns the current time, to be passed to {@link #record(Phase, long)} when the phase ends.
+     *
+     * @return the current value of System.nanoTime()
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records that the JVM phase ended, when the main method began. Called first thing by each
+     * entry point.
+     */
+    public static void recordMain() {
+        record(Phase.JVM, JVM_START);
+    }
+
+    /**
+     * Records a phase that began at the given time and ends now. Only the first recording of a
+     * phase counts.
+     *
+     * @param phase the phase that ended
+     * @param startNanos the time the phase began, as returned by {@link #now()}
+     */
+    public static synchronized void record(Phase phase, long startNanos) {
+        PHASES.putIfAbsent(phase, new long[] {startNanos, now()});
+        if (IS_ENABLED && !isReported && PHASES.size() == Phase.values().length) {
+            isReported = true;
+            System.err.print(report());
+        }
+    }
+
+    /**
+     * Returns the phases recorded so far, each with when it began and ended and how long it took,
+     * in milliseconds from the start of the JVM. The start time of the JVM is looked up here
+     * rather than when the timer is loaded, since that loads the management classes, which would
+     * otherwise be counted in the phases being measured.
+     *
+     * @return the report, one line per phase
+     */
+    public static synchronized String report() {
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+        long origin = ORIGIN_NANOS - Math.max(0, ORIGIN_MILLIS - jvmStartMillis) * 1_000_000L;
+        StringBuilder sb = new StringBuilder("Startup timing (ms since JVM start):\n");
+        for (Map.Entry<Phase, long[]> entry : PHASES.entrySet()) {
+            long[] times = entry.getValue();
+            long start = times[0] == JVM_START ? 0 : (times[0] - origin) / 1_000_000L;
+            long end = (times[1] - origin) / 1_000_000L;
+            sb.append(String.format("    %-13s %6d -> %6d  (%d ms)%n", entry.getKey().label, start, end, end - start));
+        }
+        return sb.toString();
+    }
+}
@@ -1,42 +1,166 @@
 package utils;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import tasks.Deadline;
 import tasks.Event;
 import tasks.Task;
+import tasks.TaskType;
 import tasks.Todo;
 
 /**
  * Storage is responsible for persisting and loading task data from a file.
  * It handles file creation, reading task data from disk, and writing updated tasks back to storage.
  *
+ * Snapshots are written in the binary format of {@link BinarySnapshot}. Files in the legacy
+ * CSV format are still read transparently and are converted on the next write; CSV can also
+ * be used explicitly through {@link #importCsv(String)} and {@link #exportCsv(String, ArrayList)}.
+ *
+ * In journal mode, each mutation is appended as a single record to a journal file next to the
+ * snapshot instead of rewriting the whole snapshot. Once the journal grows past a size threshold
+ * it is folded back into the snapshot on a background thread. Loading replays the snapshot
+ * followed by any journal records that it does not already cover. Journal records refer to
+ * tasks by their stable id rather than their position, and snapshots store the ids.
+ *
+ * Between {@link #beginBatch()} and {@link #commitBatch(TaskList)}, mutations are held back and
+ * then persisted together: as one journal write whose records are only replayed if all of them
+ * were written, or as a single snapshot when not journaled.
+ *
+ * After {@link #startWriteBehind(int, long)}, mutations are handed to a background writer that
+ * collects bursts of them into a single write, so commands no longer wait for the disk.
+ * Many Storages can share their background threads by passing the same executors to
+ * {@link #Storage(String, boolean, ExecutorService)} and
+ * {@link #startWriteBehind(int, long, ScheduledExecutorService)}.
+ * {@link #flush()} waits until every mutation so far is durably on disk, and {@link #close()}
+ * writes every mutation still queued, so a program has to close its Storage before it exits.
+ *
  * @author r-a-y-y-a
  * @version 1.0
  */
 public class Storage {
+    /** Default journal size in bytes after which the journal is compacted into the snapshot. */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1L << 20;
+    /** Default number of mutations the write-behind queue holds before callers have to wait. */
+    public static final int DEFAULT_WRITE_QUEUE_CAPACITY = 4096;
+    /** Default time in milliseconds the write-behind writer waits to collect a burst of mutations. */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 20;
+
+    private static final String GENERATION_HEADER = "#gen,";
+    private static final char ADD = 'A';
+    private static final char DELETE = 'D';
+    private static final char MARK = 'X';
+    private static final char UNMARK = 'O';
+    /** Record types of journals written before tasks had ids, which refer to tasks by position. */
+    private static final char LEGACY_ADD = '+';
+    private static final char LEGACY_DELETE = '-';
+    private static final char LEGACY_MARK = 'x';
+    private static final char LEGACY_UNMARK = 'o';
+    /** Lines enclosing the records of a batch, which are replayed all together or not at all. */
+    private static final String BATCH_BEGIN = "{";
+    private static final String BATCH_END = "}";
+    /** Queued in place of journal records when a non-journaled Storage has a snapshot to write. */
+    private static final String SNAPSHOT_PENDING = "";
+
     private File f;
+    private File journal;
+    private File compacting;
+    private boolean isJournaled;
+    private long compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    /** Guards the snapshot file, its write buffer and the compacting journal; acquired before journalLock. */
+    private final Object snapshotLock = new Object();
+    /** Guards the live journal file and its writer. */
+    private final Object journalLock = new Object();
+    private BufferedWriter journalWriter;
+    private FileOutputStream journalStream;
+    private long journalBytes;
+    private long journalGeneration;
+    /** Executor shared with other Storages to compact on, or null if this Storage has its own. */
+    private final ExecutorService sharedCompactor;
+    /** This Storage's own compaction thread, or null if it has none or uses a shared one. */
+    private ExecutorService compactor;
+    /** The compaction submitted last, which finishes after any submitted before it. */
+    private Future<?> compaction;
+    /** Direct buffer this Storage writes its snapshots through, allocated on first use. */
+    private ByteBuffer snapshotBuffer;
+    /** Journal records held back by the current batch, or null if no batch is open. */
+    private StringBuilder batch;
+    /** Background writer for mutations, or null if they are written by the calling thread. */
+    private WriteBehindQueue writeBehind;
+    /** The latest version a non-journaled write-behind Storage has yet to write. */
+    private TaskListVersion pendingSnapshot;
 
     /**
      * Constructs a Storage instance and initializes the file for data persistence.
      * Creates the file and its parent directories if they do not exist.
+     * A snapshot left in {@code filepath + ".tmp"} by an interrupted write is recovered
+     * if it is complete and the file itself is missing or empty, and deleted otherwise.
      *
      * @param filepath the path to the file where tasks will be stored
      */
     public Storage(String filepath) {
+        this(filepath, false);
+    }
+
+    /**
+     * Constructs a Storage instance, optionally in journal mode.
+     * In journal mode, mutations are appended to {@code filepath + ".journal"} rather than
+     * rewriting the whole file.
+     *
+     * @param filepath the path to the file where tasks will be stored
+     * @param isJournaled whether mutations should be appended to a journal
+     */
+    public Storage(String filepath, boolean isJournaled) {
+        this(filepath, isJournaled, null);
+    }
+
+    /**
+     * Constructs a Storage instance, optionally in journal mode, that compacts its journal on the
+     * given executor. The executor may be shared by many Storages, so that they need no thread
+     * each; {@link #close()} waits for this Storage's compaction but does not shut it down.
+     *
+     * @param filepath the path to the file where tasks will be stored
+     * @param isJournaled whether mutations should be appended to a journal
+     * @param compactor the executor to compact on, or null to start a thread of its own when needed
+     */
+    public Storage(String filepath, boolean isJournaled, ExecutorService compactor) {
         assert filepath != null : "Storage filepath must not be null";
+        this.isJournaled = isJournaled;
+        this.sharedCompactor = compactor;
         try {
             this.f = new File(filepath);
             assert this.f != null : "Storage file object creation failed";
+            this.journal = new File(filepath + ".journal");
+            this.compacting = new File(filepath + ".journal.old");
             File directory = f.getParentFile();
             if (directory != null && !directory.exists()) {
                 directory.mkdirs();
             }
+            recoverSnapshot();
             if (!f.exists()) {
                 f.createNewFile();
             }
@@ -44,75 +168,808 @@ public class Storage {
             System.err.println("Failed to initialize storage file: " + e.getMessage());
             e.printStackTrace();
         }
+        if (isJournaled && compacting.exists()) {
+            // Resume a compaction that was interrupted by a previous shutdown
+            startCompaction();
+        }
+    }
+
+    /**
+     * Returns whether this Storage appends mutations to a journal.
+     *
+     * @return true if journal mode is enabled
+     */
+    public boolean isJournaled() {
+        return isJournaled;
+    }
+
+    /**
+     * Sets the journal size in bytes after which the journal is compacted into the snapshot.
+     *
+     * @param bytes the compaction threshold in bytes
+     */
+    public void setCompactionThreshold(long bytes) {
+        assert bytes > 0 : "compaction threshold must be positive";
+        this.compactionThreshold = bytes;
     }
 
     /**
      * Loads tasks from the storage file.
-     * Parses the file and reconstructs Task objects (Todo, Deadline, Event) from stored data.
+     * Parses the file and reconstructs Task objects (Todo, Deadline, Event) from stored data,
+     * then replays any journal records written since the snapshot.
      *
      * @return an ArrayList of tasks loaded from the file
      */
     public ArrayList<Task> load() {
+        return loadTaskList().getAll();
+    }
+
+    /**
+     * Loads tasks from the storage file into a TaskList that materializes them lazily.
+     * For binary snapshots only an index of record offsets is built up front; each Task is
+     * created when it is first accessed. Journal records are replayed onto the list.
+     *
+     * @return a TaskList backed by the storage file
+     */
+    public TaskList loadTaskList() {
         assert f != null : "Storage file is not initialized";
-        ArrayList<Task> record = new ArrayList<>();
-        try (Scanner s = new Scanner(f)) {
-            while (s.hasNext()) {
-                String[] parse = s.nextLine().split(",");
-                String type = parse[0];
-                if (type.equals("d")) {
-                    assert parse.length >= 4 : "Malformed deadline entry in storage";
-                    LocalDateTime deadlineDate = LocalDateTime.parse(parse[3]);
-                    record.add(new Deadline(parse[1],
-                            Boolean.parseBoolean(parse[2]), deadlineDate));
-                } else if (type.equals("e")) {
-                    assert parse.length >= 5 : "Malformed event entry in storage";
-                    LocalDateTime startDate = LocalDateTime.parse(parse[3]);
-                    LocalDateTime endDate = LocalDateTime.parse(parse[4]);
-                    record.add(new Event(parse[1],
-                            Boolean.parseBoolean(parse[2]), startDate, endDate));
+        drainWriteBehind();
+        synchronized (snapshotLock) {
+            TaskList record = new TaskList();
+            long generation = 0;
+            if (BinarySnapshot.isBinary(f)) {
+                try {
+                    TaskRecords records = BinarySnapshot.open(f);
+                    record = new TaskList(records);
+                    generation = records.getGeneration();
+                } catch (IOException e) {
+                    System.err.println("Failed to read storage file: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            } else {
+                ArrayList<Task> tasks = new ArrayList<>();
+                generation = readCsv(f, tasks);
+                record = new TaskList(tasks);
+            }
+            generation = replay(compacting, generation, record);
+            synchronized (journalLock) {
+                if (journalWriter == null) {
+                    repairJournal();
                 } else {
-                    assert parse.length >= 3 : "Malformed todo entry in storage";
-                    record.add(new Todo(parse[1], Boolean.parseBoolean(parse[2])));
+                    flushJournal();
                 }
+                replay(journal, generation, record);
             }
-        } catch (IOException e) {
-            System.err.println("Failed to read storage file: " + e.getMessage());
-            e.printStackTrace();
+            return record;
         }
-        return record;
     }
 
     /**
      * Persists the provided tasks to the storage file.
      * Serializes each task with its type, description, completion status, and date information.
+     * In journal mode, the written snapshot supersedes and discards the current journal.
      *
      * @param updatedTasks the list of tasks to be saved to storage
      */
     public void store(ArrayList<Task> updatedTasks) {
         assert updatedTasks != null : "updatedTasks must not be null";
-        String line;
-        // Update tasks list
-        try (FileWriter fw = new FileWriter(f, false)) {
-            for (int i = 0; i < updatedTasks.size(); i++) {
-                Task t = updatedTasks.get(i);
-                assert t != null : "Task in updatedTasks must not be null";
-                if (t.getType().equals("d")) {
-                    Deadline d = (Deadline) updatedTasks.get(i);
-                    line = d.getType() + "," + d.getTask() + "," + d.isDone()
-                            + "," + d.getDeadline();
-                } else if (t.getType().equals("e")) {
-                    Event e = (Event) updatedTasks.get(i);
-                    line = e.getType() + "," + e.getTask() + "," + e.isDone()
-                            + "," + e.getStart() + "," + e.getEnd();
+        drainWriteBehind();
+        synchronized (snapshotLock) {
+            synchronized (journalLock) {
+                closeJournal();
+                long generation = Math.max(journalGeneration, Math.max(
+                        readGeneration(journal), readGeneration(compacting)));
+                writeSnapshot(f, updatedTasks, generation);
+                journal.delete();
+                compacting.delete();
+                journalGeneration = generation;
+            }
+        }
+    }
+
+    /**
+     * Persists the addition of a task to the end of the list.
+     *
+     * @param task the task that was added
+     * @param updatedTasks the list of tasks after the addition
+     */
+    public void storeAdded(Task task, TaskList updatedTasks) {
+        persist(ADD + "," + task.getId() + "," + toLine(task), updatedTasks);
+    }
+
+    /**
+     * Persists the removal of a task.
+     *
+     * @param task the task that was removed
+     * @param updatedTasks the list of tasks after the removal
+     */
+    public void storeDeleted(Task task, TaskList updatedTasks) {
+        persist(DELETE + "," + task.getId(), updatedTasks);
+    }
+
+    /**
+     * Persists the marking of a task as done.
+     *
+     * @param task the task that was marked
+     * @param updatedTasks the list of tasks after the change
+     */
+    public void storeMarked(Task task, TaskList updatedTasks) {
+        persist(MARK + "," + task.getId(), updatedTasks);
+    }
+
+    /**
+     * Persists the marking of a task as not done.
+     *
+     * @param task the task that was unmarked
+     * @param updatedTasks the list of tasks after the change
+     */
+    public void storeUnmarked(Task task, TaskList updatedTasks) {
+        persist(UNMARK + "," + task.getId(), updatedTasks);
+    }
+
+    /**
+     * Starts a batch. Until it is committed or rolled back, mutations passed to the
+     * {@code storeX} methods are held back instead of being written.
+     */
+    public void beginBatch() {
+        synchronized (journalLock) {
+            assert batch == null : "a batch is already open";
+            batch = new StringBuilder();
+        }
+    }
+
+    /**
+     * Returns whether a batch is open.
+     *
+     * @return true between beginBatch and the matching commit or rollback
+     */
+    public boolean isBatching() {
+        synchronized (journalLock) {
+            return batch != null;
+        }
+    }
+
+    /**
+     * Persists every mutation of the open batch at once and closes the batch.
+     * In journal mode the batch is appended as a single block that is ignored on loading unless
+     * it was written completely; otherwise the whole list is stored once.
+     *
+     * @param updatedTasks the list of tasks after the batch
+     */
+    public void commitBatch(TaskList updatedTasks) {
+        String records;
+        synchronized (journalLock) {
+            assert batch != null : "no batch is open";
+            records = batch.toString();
+            batch = null;
+        }
+        if (!isJournaled) {
+            persist(SNAPSHOT_PENDING, updatedTasks);
+        } else if (!records.isEmpty()) {
+            persist(BATCH_BEGIN + "\n" + records + BATCH_END, updatedTasks);
+        }
+    }
+
+    /**
+     * Discards every mutation of the open batch and closes the batch.
+     */
+    public void rollbackBatch() {
+        synchronized (journalLock) {
+            batch = null;
+        }
+    }
+
+    /**
+     * Starts writing mutations on a background thread instead of the calling thread.
+     * Up to {@code capacity} mutations can be waiting to be written before callers have to wait.
+     *
+     * @param capacity the maximum number of queued mutations
+     * @param flushIntervalMillis how long the writer waits after a mutation for more to arrive
+     */
+    public void startWriteBehind(int capacity, long flushIntervalMillis) {
+        startWriteBehind(capacity, flushIntervalMillis, null);
+    }
+
+    /**
+     * Starts writing mutations on the given executor instead of the calling thread. The executor
+     * may be shared by many Storages, so that they need no writer thread each; {@link #close()}
+     * does not shut it down.
+     *
+     * @param capacity the maximum number of queued mutations
+     * @param flushIntervalMillis how long the writer waits after a mutation for more to arrive
+     * @param writer the executor to write on, or null to start a thread of this Storage's own
+     */
+    public void startWriteBehind(int capacity, long flushIntervalMillis, ScheduledExecutorService writer) {
+        synchronized (journalLock) {
+            if (writeBehind == null) {
+                writeBehind = writer == null
+                        ? new WriteBehindQueue("fishball-writer", capacity, flushIntervalMillis, this::writeQueued)
+                        : new WriteBehindQueue(writer, capacity, flushIntervalMillis, this::writeQueued);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of mutations that have been accepted but not yet written.
+     *
+     * @return the number of unpersisted mutations, always 0 without write-behind
+     */
+    public long getPendingCount() {
+        WriteBehindQueue queue;
+        synchronized (journalLock) {
+            queue = writeBehind;
+        }
+        return queue == null ? 0 : queue.getPendingCount();
+    }
+
+    /**
+     * Waits until every mutation so far has been written and forced to the storage device.
+     */
+    public void flush() {
+        drainWriteBehind();
+        synchronized (journalLock) {
+            if (journalWriter == null) {
+                return;
+            }
+            try {
+                journalWriter.flush();
+                journalStream.getFD().sync();
+            } catch (IOException e) {
+                System.err.println("Exception flushing journal file: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes any queued mutations, stops the background writer, closes the journal and waits for
+     * any background compaction to finish. The Storage can still be used afterwards; mutations
+     * are then written by the calling thread and the journal is reopened on the next one.
+     */
+    public void close() {
+        WriteBehindQueue queue;
+        synchronized (journalLock) {
+            queue = writeBehind;
+            writeBehind = null;
+        }
+        if (queue != null) {
+            queue.stop();
+        }
+        ExecutorService own;
+        Future<?> pending;
+        synchronized (journalLock) {
+            closeJournal();
+            own = compactor;
+            compactor = null;
+            pending = compaction;
+            compaction = null;
+        }
+        if (pending != null) {
+            try {
+                pending.get(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                System.err.println("Failed to finish compacting the journal: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        if (own != null) {
+            own.shutdown();
+        }
+    }
+
+    /**
+     * Reads tasks from a CSV file in the legacy text format, one task per line.
+     *
+     * @param filepath the path of the CSV file to import
+     * @return an ArrayList of tasks read from the file
+     */
+    public ArrayList<Task> importCsv(String filepath) {
+        ArrayList<Task> record = new ArrayList<>();
+        readCsv(new File(filepath), record);
+        return record;
+    }
+
+    /**
+     * Writes tasks to a CSV file in the legacy text format, one task per line.
+     *
+     * @param filepath the path of the CSV file to export to
+     * @param tasks the tasks to export
+     */
+    public void exportCsv(String filepath, ArrayList<Task> tasks) {
+        assert tasks != null : "tasks must not be null";
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(filepath, false))) {
+            for (int i = 0; i < tasks.size(); i++) {
+                tasks.get(i).serializeTo(bw);
+                bw.write('\n');
+            }
+        } catch (IOException e) {
+            System.err.println("Exception writing to CSV file: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Persists a single mutation: held back if a batch is open, queued for the background writer
+     * with write-behind, appended to the journal in journal mode, or else by storing the whole list.
+     */
+    private void persist(String line, TaskList updatedTasks) {
+        WriteBehindQueue queue;
+        synchronized (journalLock) {
+            if (batch != null) {
+                if (isJournaled) {
+                    batch.append(line).append('\n');
+                }
+                return;
+            }
+            queue = writeBehind;
+            if (queue != null && !isJournaled) {
+                // Only the latest version needs writing, and holding on to it copies nothing
+                pendingSnapshot = updatedTasks.version();
+                line = SNAPSHOT_PENDING;
+            }
+        }
+        if (queue != null) {
+            queue.enqueue(line);
+        } else if (!isJournaled) {
+            store(updatedTasks.getAll());
+        } else {
+            append(List.of(line));
+        }
+    }
+
+    /**
+     * Writes a burst of queued mutations; called on the background writer thread.
+     */
+    private void writeQueued(ArrayList<String> records) {
+        if (isJournaled) {
+            append(records);
+            return;
+        }
+        TaskListVersion version;
+        synchronized (journalLock) {
+            version = pendingSnapshot;
+            pendingSnapshot = null;
+        }
+        if (version != null) {
+            store(version.getAll());
+        }
+    }
+
+    /**
+     * Waits for the background writer to write every queued mutation, unless called by it.
+     */
+    private void drainWriteBehind() {
+        WriteBehindQueue queue;
+        synchronized (journalLock) {
+            queue = writeBehind;
+        }
+        if (queue != null && !queue.isWriterThread()) {
+            queue.flush();
+        }
+    }
+
+    /**
+     * Appends records to the live journal with a single flush, starting a new journal generation
+     * if needed, and hands the journal to the background compactor once it passes the threshold.
+     */
+    private void append(List<String> lines) {
+        synchronized (journalLock) {
+            try {
+                if (journalWriter == null) {
+                    openJournal();
+                }
+                for (String line : lines) {
+                    journalWriter.write(line);
+                    journalWriter.write('\n');
+                    journalBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                }
+                journalWriter.flush();
+            } catch (IOException e) {
+                System.err.println("Exception writing to journal file: " + e.getMessage());
+                e.printStackTrace();
+                return;
+            }
+            if (journalBytes >= compactionThreshold && !compacting.exists()) {
+                rotateJournal();
+            }
+        }
+    }
+
+    private void openJournal() throws IOException {
+        repairJournal();
+        boolean isNew = !journal.exists() || journal.length() == 0;
+        journalStream = new FileOutputStream(journal, true);
+        journalWriter = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+        if (isNew) {
+            // Compaction writes the snapshot before it deletes the old journal, so reading them in
+            // the opposite order cannot miss the generation of the old journal
+            long compacted = readGeneration(compacting);
+            long generation = Math.max(journalGeneration, Math.max(readGeneration(f), compacted)) + 1;
+            journalGeneration = generation;
+            String header = GENERATION_HEADER + generation;
+            journalWriter.write(header);
+            journalWriter.write('\n');
+            journalBytes = header.length() + 1;
+        } else {
+            journalGeneration = Math.max(journalGeneration, readGeneration(journal));
+            journalBytes = journal.length();
+        }
+    }
+
+    /**
+     * Cuts off an incomplete record or batch left at the end of the live journal by a crash, so
+     * that it is not replayed and the records appended after it are not taken to be part of it.
+     * Called while the journal is not open for appending.
+     */
+    private void repairJournal() {
+        if (!journal.exists()) {
+            return;
+        }
+        try {
+            // Compaction keeps the journal small enough to read whole
+            byte[] contents = Files.readAllBytes(journal.toPath());
+            int valid = 0;
+            int batchStart = -1;
+            for (int lineStart = 0, i = 0; i < contents.length; i++) {
+                if (contents[i] != '\n') {
+                    continue;
+                }
+                String line = new String(contents, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                if (line.equals(BATCH_BEGIN)) {
+                    batchStart = lineStart;
+                } else if (line.equals(BATCH_END)) {
+                    batchStart = -1;
+                }
+                lineStart = i + 1;
+                valid = lineStart;
+            }
+            if (batchStart >= 0) {
+                valid = batchStart;
+            }
+            if (valid < contents.length) {
+                System.err.println("Discarding an incomplete record at the end of " + journal);
+                try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                    channel.force(true);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to repair journal file: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private void closeJournal() {
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            journalWriter.close();
+        } catch (IOException e) {
+            System.err.println("Exception closing journal file: " + e.getMessage());
+        }
+        journalWriter = null;
+        journalStream = null;
+    }
+
+    private void flushJournal() {
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            journalWriter.flush();
+        } catch (IOException e) {
+            System.err.println("Exception flushing journal file: " + e.getMessage());
+        }
+    }
+
+    private void rotateJournal() {
+        closeJournal();
+        if (!journal.renameTo(compacting)) {
+            System.err.println("Failed to rotate journal file for compaction");
+            return;
+        }
+        startCompaction();
+    }
+
+    private void startCompaction() {
+        ExecutorService executor = sharedCompactor;
+        if (executor == null) {
+            if (compactor == null) {
+                compactor = Executors.newSingleThreadExecutor(r -> {
+                    Thread t = new Thread(r, "fishball-compactor");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            executor = compactor;
+        }
+        compaction = executor.submit(this::compact);
+    }
+
+    /**
+     * Folds the rotated journal into a new snapshot and removes it.
+     * The new snapshot records the journal generation it covers, so a crash between
+     * writing the snapshot and deleting the journal does not replay records twice.
+     */
+    private void compact() {
+        synchronized (snapshotLock) {
+            if (!compacting.exists()) {
+                return;
+            }
+            ArrayList<Task> tasks = new ArrayList<>();
+            long generation = readSnapshot(f, tasks);
+            TaskList record = new TaskList(tasks);
+            replay(compacting, generation, record);
+            writeSnapshot(f, record.getAll(), Math.max(generation, readGeneration(compacting)));
+            compacting.delete();
+        }
+    }
+
+    /**
+     * Reads a snapshot into the given list. Binary snapshots are read whole;
+     * anything else is parsed as legacy CSV lines.
+     *
+     * @return the journal generation covered by the snapshot, or 0 if none
+     */
+    private long readSnapshot(File file, ArrayList<Task> record) {
+        if (BinarySnapshot.isBinary(file)) {
+            try {
+                return BinarySnapshot.read(file, record);
+            } catch (IOException e) {
+                System.err.println("Failed to read storage file: " + e.getMessage());
+                e.printStackTrace();
+                return 0;
+            }
+        }
+        return readCsv(file, record);
+    }
+
+    private long readCsv(File file, ArrayList<Task> record) {
+        long generation = 0;
+        try (Scanner s = new Scanner(file)) {
+            while (s.hasNext()) {
+                String line = s.nextLine();
+                if (line.startsWith(GENERATION_HEADER)) {
+                    generation = Long.parseLong(line.substring(GENERATION_HEADER.length()));
+                    continue;
+                }
+                record.add(fromLine(line));
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to read storage file: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return generation;
+    }
+
+    /**
+     * Applies the records of a journal file to the given list, unless the journal's
+     * generation is already covered by the snapshot.
+     *
+     * @return the larger of the covered generation and the journal's generation
+     */
+    private long replay(File file, long covered, TaskList record) {
+        if (!file.exists()) {
+            return covered;
+        }
+        long generation = readGeneration(file);
+        if (generation <= covered) {
+            return covered;
+        }
+        try (Scanner s = new Scanner(file, StandardCharsets.UTF_8)) {
+            ArrayList<String> pending = null;
+            while (s.hasNext()) {
+                String line = s.nextLine();
+                if (line.isEmpty() || line.startsWith(GENERATION_HEADER)) {
+                    continue;
+                }
+                if (line.equals(BATCH_BEGIN)) {
+                    pending = new ArrayList<>();
+                } else if (line.equals(BATCH_END)) {
+                    if (pending != null) {
+                        for (String pendingLine : pending) {
+                            apply(pendingLine, record);
+                        }
+                    }
+                    pending = null;
+                } else if (pending != null) {
+                    pending.add(line);
                 } else {
-                    line = t.getType() + "," + t.getTask() + "," + t.isDone();
+                    apply(line, record);
+                }
+            }
+            // A batch without its closing line was cut short by a crash and is dropped
+        } catch (IOException e) {
+            System.err.println("Failed to read journal file: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return generation;
+    }
+
+    /**
+     * Applies a single journal record to the given list. A record that cannot be read, such as
+     * one damaged on disk, is reported and skipped rather than failing the whole load.
+     */
+    private static void apply(String line, TaskList record) {
+        try {
+            applyRecord(line, record);
+        } catch (RuntimeException e) {
+            System.err.println("Skipping unreadable journal record: " + line);
+        }
+    }
+
+    private static void applyRecord(String line, TaskList record) {
+        String body = line.substring(2);
+        switch (line.charAt(0)) {
+        case ADD:
+            int comma = body.indexOf(',');
+            Task added = fromLine(body.substring(comma + 1));
+            added.setId(Integer.parseInt(body.substring(0, comma)));
+            record.add(added);
+            break;
+        case DELETE:
+            replayById(record, body, DELETE);
+            break;
+        case MARK:
+            replayById(record, body, MARK);
+            break;
+        case UNMARK:
+            replayById(record, body, UNMARK);
+            break;
+        case LEGACY_ADD:
+            record.add(fromLine(body));
+            break;
+        case LEGACY_DELETE:
+            record.remove(Integer.parseInt(body));
+            break;
+        case LEGACY_MARK:
+            record.mark(Integer.parseInt(body));
+            break;
+        case LEGACY_UNMARK:
+            record.unmark(Integer.parseInt(body));
+            break;
+        default:
+            assert false : "Unknown journal record: " + line;
+        }
+    }
+
+    /**
+     * Applies a delete, mark or unmark record to the task with the id it names.
+     * Records for ids that are no longer in the list are ignored.
+     */
+    private static void replayById(TaskList record, String body, char type) {
+        int index = record.indexOfId(Integer.parseInt(body));
+        if (index < 0) {
+            return;
+        }
+        if (type == DELETE) {
+            record.remove(index);
+        } else if (type == MARK) {
+            record.mark(index);
+        } else {
+            record.unmark(index);
+        }
+    }
+
+    /**
+     * Reads the generation a snapshot or journal file covers. A file that does not exist, or that
+     * compaction deletes while it is being read, covers no generation.
+     */
+    private long readGeneration(File file) {
+        if (!file.exists()) {
+            return 0;
+        }
+        try {
+            if (BinarySnapshot.isBinary(file)) {
+                return BinarySnapshot.readGeneration(file);
+            }
+            // The header is ASCII, and Latin-1 decodes whatever follows it without failing
+            try (Scanner s = new Scanner(file, StandardCharsets.ISO_8859_1)) {
+                if (s.hasNext()) {
+                    String line = s.nextLine();
+                    if (line.startsWith(GENERATION_HEADER)) {
+                        return Long.parseLong(line.substring(GENERATION_HEADER.length()));
+                    }
                 }
-                fw.write(line + "\n");
             }
-            fw.flush();
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Failed to read storage file: " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file, which is forced to the device before being
+     * renamed over the target, so a crash leaves either the old snapshot or the new one.
+     * Called holding snapshotLock, which also guards the write buffer.
+     */
+    private void writeSnapshot(File target, ArrayList<Task> updatedTasks, long generation) {
+        File tmp = new File(target.getPath() + ".tmp");
+        try {
+            if (snapshotBuffer == null) {
+                snapshotBuffer = BinarySnapshot.allocateWriteBuffer();
+            }
+            BinarySnapshot.write(tmp, updatedTasks, generation, snapshotBuffer);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(target);
         } catch (IOException e) {
             System.err.println("Exception writing to storage file: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * Finishes or discards a snapshot write that was interrupted before its rename.
+     */
+    private void recoverSnapshot() throws IOException {
+        File tmp = new File(f.getPath() + ".tmp");
+        if (!tmp.exists()) {
+            return;
+        }
+        if (f.length() == 0 && BinarySnapshot.isComplete(tmp)) {
+            Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(f);
+        } else {
+            Files.delete(tmp.toPath());
+        }
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to the device.
+     */
+    private static void syncDirectory(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms cannot open directories; the rename itself is still atomic
+        }
+    }
+
+    private static String toLine(Task t) {
+        StringBuilder line = new StringBuilder();
+        try {
+            t.serializeTo(line);
+        } catch (IOException e) {
+            // Appending to a StringBuilder never fails
+            throw new AssertionError(e);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Parses a task line. The description may itself contain commas, so the fields after it are
+     * taken from the right: the completion status and then as many dates as the task type has.
+     */
+    private static Task fromLine(String line) {
+        TaskType type = TaskType.fromCode(line.charAt(0));
+        int dateCount = type == TaskType.EVENT ? 2 : type == TaskType.DEADLINE ? 1 : 0;
+        String[] trailing = new String[dateCount + 1];
+        int end = line.length();
+        for (int i = dateCount; i >= 0; i--) {
+            int comma = line.lastIndexOf(',', end - 1);
+            assert comma > 1 : "Malformed " + type + " entry in storage";
+            trailing[i] = line.substring(comma + 1, end);
+            end = comma;
+        }
+        String description = line.substring(2, end);
+        boolean isDone = Boolean.parseBoolean(trailing[0]);
+        if (type == TaskType.DEADLINE) {
+            return new Deadline(description, isDone, LocalDateTime.parse(trailing[1]));
+        } else if (type == TaskType.EVENT) {
+            return new Event(description, isDone, LocalDateTime.parse(trailing[1]), LocalDateTime.parse(trailing[2]));
+        } else {
+            return new Todo(description, isDone);
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package utils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import tasks.Deadline;
+import tasks.Event;
+import tasks.Task;
+import tasks.TaskType;
+import tasks.Todo;
+
+/**
+ * TaskColumns holds the tasks of one {@link OrderTree} leaf column by column, in primitive
+ * arrays: a type code per task, a bitset of completion, the dates as epoch seconds and the
+ * descriptions, which are interned so that repeated descriptions are kept once. A Task is only
+ * created when it is read, and is a new object every time.
+ *
+ * Dates are kept to the second, as in the binary snapshot. The date columns are left out of a
+ * leaf that has no dated task, and the end column out of one that has no event. A type code of
+ * zero marks a position whose task is not held here.
+ *
+ * Like the tree, columns never change once built; every update returns new columns.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class TaskColumns {
+    /** Type code of a position whose task is not held. */
+    private static final byte ABSENT = 0;
+
+    private final byte[] types;
+    private final long[] done;
+    /** Deadline or start of each task, or null if no task is dated. */
+    private final long[] first;
+    /** End of each event, or null if no task is an event. */
+    private final long[] second;
+    private final String[] descriptions;
+
+    private TaskColumns(byte[] types, long[] done, long[] first, long[] second, String[] descriptions) {
+        this.types = types;
+        this.done = done;
+        this.first = first;
+        this.second = second;
+        this.descriptions = descriptions;
+    }
+
+    /**
+     * Returns columns holding the given tasks, or null if none of them is held.
+     *
+     * @param tasks the tasks, with null for tasks that are not held
+     * @param from the index of the first task to take
+     * @param to the index after the last task to take
+     * @return the columns, or null
+     */
+    static TaskColumns of(Task[] tasks, int from, int to) {
+        TaskColumns columns = null;
+        for (int i = from; i < to; i++) {
+            if (tasks[i] != null) {
+                if (columns == null) {
+                    columns = absent(to - from);
+                }
+                columns = columns.set(i - from, tasks[i]);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Returns columns of the given size in which no task is held.
+     *
+     * @param size the number of positions
+     * @return the columns
+     */
+    static TaskColumns absent(int size) {
+        return new TaskColumns(new byte[size], new long[words(size)], null, null, new String[size]);
+    }
+
+    /**
+     * Returns the number of positions.
+     *
+     * @return the number of positions
+     */
+    int size() {
+        return types.length;
+    }
+
+    /**
+     * Creates the task at the given position.
+     *
+     * @param i the position
+     * @param id the id to give the task
+     * @return a new Task, or null if the task is not held here
+     */
+    Task taskAt(int i, int id) {
+        Task task;
+        switch (types[i]) {
+        case ABSENT:
+            return null;
+        case BinarySnapshot.DEADLINE:
+            task = new Deadline(descriptions[i], isDone(i), toDate(first[i]));
+            break;
+        case BinarySnapshot.EVENT:
+            task = new Event(descriptions[i], isDone(i), toDate(first[i]), toDate(second[i]));
+            break;
+        default:
+            task = new Todo(descriptions[i], isDone(i));
+            break;
+        }
+        task.setId(id);
+        return task;
+    }
+
+    /**
+     * Returns columns with a task appended.
+     *
+     * @param task the task, or null if it is not held
+     * @return the new columns
+     */
+    TaskColumns append(Task task) {
+        int size = types.length;
+        TaskColumns grown = new TaskColumns(Arrays.copyOf(types, size + 1), Arrays.copyOf(done, words(size + 1)),
+                first == null ? null : Arrays.copyOf(first, size + 1),
+                second == null ? null : Arrays.copyOf(second, size + 1),
+                Arrays.copyOf(descriptions, size + 1));
+        return task == null ? grown : grown.set(size, task);
+    }
+
+    /**
+     * Returns columns holding another task at the given position.
+     *
+     * @param i the position
+     * @param task the new task
+     * @return the new columns
+     */
+    TaskColumns with(int i, Task task) {
+        return new TaskColumns(types.clone(), done.clone(), first == null ? null : first.clone(),
+                second == null ? null : second.clone(), descriptions.clone()).set(i, task);
+    }
+
+    /**
+     * Returns columns without the given position.
+     *
+     * @param i the position to remove
+     * @return the new columns
+     */
+    TaskColumns without(int i) {
+        int size = types.length - 1;
+        long[] bits = new long[words(size)];
+        for (int j = 0, k = 0; j <= size; j++) {
+            if (j != i) {
+                if (isDone(j)) {
+                    bits[k >>> 6] |= 1L << k;
+                }
+                k++;
+            }
+        }
+        return new TaskColumns(without(types, i), bits, first == null ? null : without(first, i),
+                second == null ? null : without(second, i), without(descriptions, i));
+    }
+
+    /**
+     * Fills in a position of columns that are not yet shared, growing the date columns if needed.
+     */
+    private TaskColumns set(int i, Task task) {
+        TaskType type = task.getType();
+        TaskColumns target = this;
+        if (type != TaskType.TODO && first == null) {
+            target = new TaskColumns(types, done, new long[types.length], second, descriptions);
+        }
+        if (type == TaskType.EVENT && target.second == null) {
+            target = new TaskColumns(types, done, target.first, new long[types.length], descriptions);
+        }
+        target.types[i] = (byte) type.getCode();
+        if (type != TaskType.TODO) {
+            target.first[i] = toEpoch(task.startTime());
+        }
+        if (type == TaskType.EVENT) {
+            target.second[i] = toEpoch(task.dueTime());
+        }
+        if (task.isDone()) {
+            target.done[i >>> 6] |= 1L << i;
+        } else {
+            target.done[i >>> 6] &= ~(1L << i);
+        }
+        target.descriptions[i] = task.getTask().intern();
+        return target;
+    }
+
+    private boolean isDone(int i) {
+        return (done[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static int words(int size) {
+        return (size + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    /**
+     * Returns a date as whole epoch seconds, the way the columns keep it.
+     *
+     * @param date the date
+     * @return the epoch second of the date, in UTC
+     */
+    static long toEpoch(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDate(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static byte[] without(byte[] array, int i) {
+        byte[] copy = new byte[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, i);
+        System.arraycopy(array, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+
+    private static long[] without(long[] array, int i) {
+        long[] copy = new long[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, i);
+        System.arraycopy(array, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+
+    private static String[] without(String[] array, int i) {
+        String[] copy = new String[array.length - 1];
+        System.arraycopy(array, 0, copy, 0, i);
+        System.arraycopy(array, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+}
@@ -1,47 +1,86 @@
 package utils;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
-import tasks.Deadline;
-import tasks.Event;
 import tasks.Task;
 
 /**
  * TaskList is a wrapper class for managing a collection of Task objects.
  * It provides methods to add, remove, retrieve, and query tasks in the list.
  *
+ * Every task in the list carries a stable id that does not change when other tasks are removed.
+ * Ids are handed out in increasing order and tasks are only ever appended, so list order is id
+ * order, and positions shown to the user are unchanged by removals.
+ *
+ * The contents of the list are an immutable {@link TaskListVersion}, published through an
+ * atomic reference. Each change derives a new version, sharing all but O(log n) of its
+ * structure with the previous one, and publishes it, so reads never wait for changes and any
+ * number of threads may read the list while one changes it. Readers that need several
+ * consistent answers should take a single {@link #version()} and ask it.
+ *
+ * The list keeps no Task objects: tasks are stored column by column in primitive arrays, and a
+ * new Task is created whenever one is read. Tasks must therefore be marked through
+ * {@link #mark(int)} and {@link #unmark(int)}; marking a Task that was read changes only that
+ * object. A TaskList loaded from a binary snapshot starts out with each position referring to a
+ * snapshot record instead, and queries inspect those records directly where they can.
+ *
  * @author r-a-y-y-a
  * @version 1.0
  */
 public class TaskList {
-    private ArrayList<Task> tasks;
+    /** The current contents of the list. */
+    private final AtomicReference<TaskListVersion> current;
 
     /**
      * Constructs an empty TaskList.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
-        assert this.tasks != null : "tasks list must be initialized";
+        this.current = new AtomicReference<>(TaskListVersion.EMPTY);
     }
 
     /**
      * Constructs a TaskList initialized with the given list of tasks.
+     * Tasks keep their ids as long as they are in increasing order; the others are given new ids.
      *
      * @param tasks the initial collection of tasks
      */
     public TaskList(ArrayList<Task> tasks) {
         assert tasks != null : "tasks parameter must not be null";
-        this.tasks = tasks;
+        this.current = new AtomicReference<>(TaskListVersion.of(tasks));
+    }
+
+    /**
+     * Constructs a TaskList backed by the records of a binary snapshot.
+     * No Task is created until its position is accessed.
+     *
+     * @param records the snapshot records
+     */
+    TaskList(TaskRecords records) {
+        assert records != null : "records parameter must not be null";
+        this.current = new AtomicReference<>(TaskListVersion.of(records));
     }
 
     /**
-     * Adds a task to the list.
+     * Returns the current contents of the list, which later changes to the list do not affect.
+     *
+     * @return the current version
+     */
+    public TaskListVersion version() {
+        return current.get();
+    }
+
+    /**
+     * Adds a task to the end of the list.
+     * The task keeps its id if it is larger than that of every task added before; otherwise,
+     * including when it has no id yet, it is given the next free id.
      *
      * @param task the task to be added
      */
-    public void add(Task task) {
+    public synchronized void add(Task task) {
         assert task != null : "task to add must not be null";
-        this.tasks.add(task);
+        current.set(current.get().add(task));
     }
 
     /**
@@ -50,9 +89,8 @@ public class TaskList {
      * @param index the index of the task to be removed
      * @throws IndexOutOfBoundsException if the index is out of range
      */
-    public void remove(int index) {
-        assert index >= 0 && index < this.tasks.size() : "remove index out of range";
-        this.tasks.remove(index);
+    public synchronized void remove(int index) {
+        current.set(current.get().remove(index));
     }
 
     /**
@@ -63,8 +101,47 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if the index is out of range
      */
     public Task get(int index) {
-        assert index >= 0 && index < this.tasks.size() : "get index out of range";
-        return this.tasks.get(index);
+        return current.get().get(index);
+    }
+
+    /**
+     * Retrieves the task with the given id.
+     *
+     * @param id the id of the task to retrieve
+     * @return the task with that id, or null if no task in the list has it
+     */
+    public Task getById(int id) {
+        return current.get().getById(id);
+    }
+
+    /**
+     * Returns the position of the task with the given id.
+     *
+     * @param id the id of the task
+     * @return the zero-based index of the task, or -1 if no task in the list has that id
+     */
+    public int indexOfId(int id) {
+        return current.get().indexOfId(id);
+    }
+
+    /**
+     * Marks the task at the specified index as completed.
+     *
+     * @param index the index of the task to mark
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public synchronized void mark(int index) {
+        current.set(current.get().mark(index));
+    }
+
+    /**
+     * Marks the task at the specified index as not completed.
+     *
+     * @param index the index of the task to unmark
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public synchronized void unmark(int index) {
+        current.set(current.get().unmark(index));
     }
 
     /**
@@ -73,18 +150,40 @@ public class TaskList {
      * @return the size of the task list
      */
     public int size() {
-        assert this.tasks != null : "tasks list must not be null";
-        return this.tasks.size();
+        return current.get().size();
     }
 
     /**
-     * Retrieves all tasks in the list.
+     * Retrieves all tasks in the list, materializing any that have not been accessed yet.
+     * The returned list is a copy; changing it does not change this TaskList.
      *
      * @return the list of all tasks
      */
     public ArrayList<Task> getAll() {
-        assert this.tasks != null : "tasks list must not be null";
-        return this.tasks;
+        return current.get().getAll();
+    }
+
+    /**
+     * Returns an independent copy of this list. The copy starts out sharing the current version,
+     * so copying takes constant time, and changes to either list do not affect the other.
+     *
+     * @return a copy of this list with the same tasks and ids
+     */
+    public TaskList copy() {
+        TaskList copy = new TaskList();
+        copy.current.set(current.get());
+        return copy;
+    }
+
+    /**
+     * Replaces the contents of this list with those of another list, publishing them at once.
+     * This is how a copy that was changed as a whole is committed.
+     *
+     * @param other the list to take the contents of
+     */
+    public synchronized void replaceWith(TaskList other) {
+        assert other != null : "other list must not be null";
+        current.set(other.current.get());
     }
 
     /**
@@ -93,12 +192,21 @@ public class TaskList {
      * @return a formatted string representation of all tasks
      */
     public String toString() {
-        assert this.tasks != null : "tasks list must not be null";
-        StringBuilder out = new StringBuilder();
-        for (int i = 0; i < tasks.size(); i++) {
-            out.append(i + 1).append(".").append(tasks.get(i).toString()).append("\n");
-        }
-        return out.toString();
+        return current.get().toString();
+    }
+
+    /**
+     * Streams the tasks at positions [from, to) to out, one rendered line at a time, numbered
+     * by position from 1 as the list command shows them.
+     *
+     * @param out where to write the lines
+     * @param from the index of the first task, inclusive
+     * @param to the index after the last task
+     * @throws IOException if writing fails
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public void appendNumbered(Appendable out, int from, int to) throws IOException {
+        current.get().appendNumbered(out, from, to);
     }
 
     /**
@@ -108,27 +216,63 @@ public class TaskList {
      * @return an ArrayList of upcoming tasks within the next 7 days
      */
     public ArrayList<Task> getUpcomingWithinWeek() {
-        assert this.tasks != null : "tasks list must not be null";
-        ArrayList<Task> upcoming = new ArrayList<>();
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime limit = now.plusDays(7);
-        for (Task t : this.tasks) {
-            assert t != null : "task in list must not be null";
-            if (t.isDone()) {
-                continue;
-            }
-            if (t instanceof Deadline) {
-                LocalDateTime dl = ((Deadline) t).getDeadline();
-                if ((dl.isAfter(now) || dl.isEqual(now)) && (dl.isBefore(limit) || dl.isEqual(limit))) {
-                    upcoming.add(t);
-                }
-            } else if (t instanceof Event) {
-                LocalDateTime end = ((Event) t).getEnd();
-                if ((end.isAfter(now) || end.isEqual(now)) && (end.isBefore(limit) || end.isEqual(limit))) {
-                    upcoming.add(t);
-                }
-            }
-        }
-        return upcoming;
+        return current.get().getUpcomingWithinWeek();
+    }
+
+    /**
+     * Returns a list of tasks that have a deadline or event end within the given number of days.
+     * Completed tasks are ignored. Tasks are ordered by when they are due.
+     *
+     * @param days the number of days from now to look ahead
+     * @return an ArrayList of upcoming tasks
+     */
+    public ArrayList<Task> getUpcoming(int days) {
+        return current.get().getUpcoming(days);
+    }
+
+    /**
+     * Returns the pending deadlines due in [from, to] and the pending events ending in [from, to],
+     * ordered by when they are due.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, inclusive
+     * @return an ArrayList of tasks due within the range
+     */
+    public ArrayList<Task> getDueBetween(LocalDateTime from, LocalDateTime to) {
+        return current.get().getDueBetween(from, to);
+    }
+
+    /**
+     * Returns the pending deadlines due in [from, to] and the pending events whose span
+     * overlaps [from, to], ordered by when they begin.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, inclusive
+     * @return an ArrayList of tasks taking place within the range
+     */
+    public ArrayList<Task> getBetween(LocalDateTime from, LocalDateTime to) {
+        return current.get().getBetween(from, to);
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain the given keywords as whole words, ignoring case.
+     * A task matches if it contains every keyword of at least one of the groups, so a single group
+     * is an AND query and several single-keyword groups form an OR query.
+     *
+     * @param groups the keyword groups to match
+     * @return the indices of the matching tasks in ascending order
+     */
+    public ArrayList<Integer> find(ArrayList<ArrayList<String>> groups) {
+        return current.get().find(groups);
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain the given keyword as a whole word, ignoring case.
+     *
+     * @param keyword the keyword to search for
+     * @return the indices of the matching tasks in ascending order
+     */
+    public ArrayList<Integer> find(String keyword) {
+        return current.get().find(keyword);
     }
 }
@@ -0,0 +1,518 @@
+package utils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import tasks.Task;
+import tasks.TaskType;
+
+/**
+ * TaskListVersion is one immutable state of a {@link TaskList}. It can be read from any number
+ * of threads without locking, and stays the same however the TaskList changes afterwards, so a
+ * reader that needs several consistent answers, such as a search followed by the tasks it found,
+ * should ask a single version for all of them.
+ *
+ * A version holds the tasks in a persistent {@link OrderTree}, whose leaves keep them in
+ * primitive {@link TaskColumns}. Changing the list derives a new version that shares all but
+ * O(log n) nodes with this one. Tasks loaded from a binary snapshot may instead be left in its
+ * records. Either way, every read creates a new Task, so changing a Task that was read does not
+ * change any version.
+ *
+ * The date and word indexes are persistent as well. Each version builds them on its first date
+ * query or keyword search, and versions derived from one that has them keep them up to date.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+public final class TaskListVersion {
+    /** The version without any tasks. */
+    static final TaskListVersion EMPTY = new TaskListVersion(OrderTree.EMPTY, null, 0, null, null);
+
+    /**
+     * Pending deadlines, indexed by their due date, and pending events, indexed by their span.
+     */
+    private static final class DateIndex {
+        private final IntervalTree deadlines;
+        private final IntervalTree events;
+
+        private DateIndex(IntervalTree deadlines, IntervalTree events) {
+            this.deadlines = deadlines;
+            this.events = events;
+        }
+
+        private DateIndex with(Task task) {
+            if (task.isDone() || task.dueTime() == null) {
+                return this;
+            }
+            long start = TaskColumns.toEpoch(task.startTime());
+            long end = TaskColumns.toEpoch(task.dueTime());
+            if (task.getType() == TaskType.EVENT) {
+                return new DateIndex(deadlines, events.add(task.getId(), start, end));
+            }
+            return new DateIndex(deadlines.add(task.getId(), start, end), events);
+        }
+
+        private DateIndex without(Task task) {
+            if (task.isDone() || task.dueTime() == null) {
+                return this;
+            }
+            long start = TaskColumns.toEpoch(task.startTime());
+            if (task.getType() == TaskType.EVENT) {
+                return new DateIndex(deadlines, events.remove(task.getId(), start));
+            }
+            return new DateIndex(deadlines.remove(task.getId(), start), events);
+        }
+    }
+
+    /** Ids of the tasks in list order, with the tasks that are not left in the records. */
+    private final OrderTree order;
+    /** Snapshot records holding the tasks the tree does not, or null if it holds them all. */
+    private final TaskRecords records;
+    /** The id given to the next task added without one. */
+    private final int nextId;
+    /** Date index, or null until this version or one it was derived from is first queried by date. */
+    private volatile DateIndex dates;
+    /** Word index, or null until this version or one it was derived from is first searched. */
+    private volatile WordIndex words;
+
+    private TaskListVersion(OrderTree order, TaskRecords records, int nextId, DateIndex dates, WordIndex words) {
+        this.order = order;
+        this.records = records;
+        this.nextId = nextId;
+        this.dates = dates;
+        this.words = words;
+    }
+
+    /**
+     * Returns a version holding the given tasks.
+     * Tasks keep their ids as long as they are in increasing order; the others are given new ids.
+     *
+     * @param tasks the tasks in list order
+     * @return the version
+     */
+    static TaskListVersion of(ArrayList<Task> tasks) {
+        int[] ids = new int[tasks.size()];
+        Task[] held = new Task[tasks.size()];
+        int nextId = 0;
+        for (int i = 0; i < ids.length; i++) {
+            Task task = tasks.get(i);
+            assert task != null : "task to add must not be null";
+            if (task.getId() < nextId) {
+                task.setId(nextId);
+            }
+            ids[i] = task.getId();
+            held[i] = task;
+            nextId = ids[i] + 1;
+        }
+        return new TaskListVersion(OrderTree.of(ids, held, ids.length), null, nextId, null, null);
+    }
+
+    /**
+     * Returns a version backed by the records of a binary snapshot.
+     *
+     * @param records the snapshot records
+     * @return the version
+     */
+    static TaskListVersion of(TaskRecords records) {
+        int count = records.size();
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = records.idOf(i);
+        }
+        return new TaskListVersion(OrderTree.of(ids, count), records, records.maxId() + 1, null, null);
+    }
+
+    /**
+     * Returns the number of tasks in this version.
+     *
+     * @return the number of tasks
+     */
+    public int size() {
+        return order.size();
+    }
+
+    /**
+     * Retrieves the task at the specified index.
+     *
+     * @param index the index of the task to retrieve
+     * @return the task at the specified index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public Task get(int index) {
+        checkIndex(index);
+        Task task = order.taskAt(index);
+        return task != null ? task : materialize(order.get(index));
+    }
+
+    /**
+     * Retrieves the task with the given id.
+     *
+     * @param id the id of the task to retrieve
+     * @return the task with that id, or null if no task in this version has it
+     */
+    public Task getById(int id) {
+        int index = order.indexOf(id);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * Returns the position of the task with the given id.
+     *
+     * @param id the id of the task
+     * @return the zero-based index of the task, or -1 if no task in this version has that id
+     */
+    public int indexOfId(int id) {
+        return order.indexOf(id);
+    }
+
+    /**
+     * Retrieves all tasks in list order.
+     *
+     * @return a new list holding the tasks
+     */
+    public ArrayList<Task> getAll() {
+        ArrayList<Task> all = new ArrayList<>(order.size());
+        forEach(all::add);
+        return all;
+    }
+
+    /**
+     * Returns a string representation of the tasks with numbered entries.
+     *
+     * @return a formatted string representation of all tasks
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        appendNumbered(out, ".", 0, order.size());
+        return out.toString();
+    }
+
+    /**
+     * Appends every task in list order, one per line and numbered from 1, as the list command
+     * shows them, such as "1. [T][ ] read book". The lines of tasks that are unchanged since an
+     * earlier version was listed are not rendered again.
+     *
+     * @param out where to append the lines
+     */
+    public void appendNumbered(StringBuilder out) {
+        appendNumbered(out, ". ", 0, order.size());
+    }
+
+    /**
+     * Streams the tasks at positions [from, to) to out, one per line and numbered by position
+     * from 1, as the list command shows them. Each line is appended as soon as it is reached,
+     * so a page of a large list, or a whole list written to a buffered stream, is never held
+     * in memory at once.
+     *
+     * @param out where to write the lines
+     * @param from the index of the first task, inclusive
+     * @param to the index after the last task
+     * @throws IOException if writing fails
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public void appendNumbered(Appendable out, int from, int to) throws IOException {
+        Objects.checkFromToIndex(from, to, order.size());
+        order.appendNumbered(out, ". ", from, to, this::materialize);
+    }
+
+    private void appendNumbered(StringBuilder out, String separator, int from, int to) {
+        try {
+            order.appendNumbered(out, separator, from, to, this::materialize);
+        } catch (IOException e) {
+            // Appending to a StringBuilder never fails
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Returns a list of tasks that have a deadline or event end within the next 7 days.
+     * Both deadlines and events are considered. Completed tasks are ignored.
+     *
+     * @return an ArrayList of upcoming tasks within the next 7 days
+     */
+    public ArrayList<Task> getUpcomingWithinWeek() {
+        return getUpcoming(7);
+    }
+
+    /**
+     * Returns a list of tasks that have a deadline or event end within the given number of days.
+     * Completed tasks are ignored. Tasks are ordered by when they are due.
+     *
+     * @param days the number of days from now to look ahead
+     * @return an ArrayList of upcoming tasks
+     */
+    public ArrayList<Task> getUpcoming(int days) {
+        assert days >= 0 : "days must not be negative";
+        LocalDateTime now = LocalDateTime.now();
+        return getDueBetween(now, now.plusDays(days));
+    }
+
+    /**
+     * Returns the pending deadlines due in [from, to] and the pending events ending in [from, to],
+     * ordered by when they are due.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, inclusive
+     * @return an ArrayList of tasks due within the range
+     */
+    public ArrayList<Task> getDueBetween(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "range must not be null";
+        DateIndex index = dates();
+        ArrayList<Task> due = new ArrayList<>();
+        collectPending(index.deadlines, from, to, due);
+        ArrayList<Task> events = new ArrayList<>();
+        collectPending(index.events, from, to, events);
+        for (Task e : events) {
+            if (!e.dueTime().isAfter(to)) {
+                due.add(e);
+            }
+        }
+        due.sort(Comparator.comparing(Task::dueTime));
+        return due;
+    }
+
+    /**
+     * Returns the pending deadlines due in [from, to] and the pending events whose span
+     * overlaps [from, to], ordered by when they begin.
+     *
+     * @param from the start of the range, inclusive
+     * @param to the end of the range, inclusive
+     * @return an ArrayList of tasks taking place within the range
+     */
+    public ArrayList<Task> getBetween(LocalDateTime from, LocalDateTime to) {
+        assert from != null && to != null : "range must not be null";
+        DateIndex index = dates();
+        ArrayList<Task> between = new ArrayList<>();
+        collectPending(index.deadlines, from, to, between);
+        collectPending(index.events, from, to, between);
+        between.sort(Comparator.comparing(Task::startTime));
+        return between;
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain the given keywords as whole words, ignoring case.
+     * A task matches if it contains every keyword of at least one of the groups, so a single group
+     * is an AND query and several single-keyword groups form an OR query.
+     *
+     * @param groups the keyword groups to match
+     * @return the indices of the matching tasks in ascending order
+     */
+    public ArrayList<Integer> find(ArrayList<ArrayList<String>> groups) {
+        assert groups != null : "keyword groups must not be null";
+        WordIndex index = words();
+        IdSet hits = new IdSet();
+        for (ArrayList<String> group : groups) {
+            matchAll(index, group, hits);
+        }
+        // Ids increase along the list, so ascending ids give ascending indices
+        ArrayList<Integer> indices = new ArrayList<>(hits.size());
+        for (int i = 0; i < hits.size(); i++) {
+            indices.add(order.indexOf(hits.get(i)));
+        }
+        return indices;
+    }
+
+    /**
+     * Finds the tasks whose descriptions contain the given keyword as a whole word, ignoring case.
+     *
+     * @param keyword the keyword to search for
+     * @return the indices of the matching tasks in ascending order
+     */
+    public ArrayList<Integer> find(String keyword) {
+        ArrayList<String> group = new ArrayList<>();
+        group.add(keyword);
+        ArrayList<ArrayList<String>> groups = new ArrayList<>();
+        groups.add(group);
+        return find(groups);
+    }
+
+    /**
+     * Returns a version with a task appended.
+     * The task keeps its id if it is larger than that of every task added before; otherwise,
+     * including when it has no id yet, it is given the next free id.
+     *
+     * @param task the task to add
+     * @return the new version
+     */
+    TaskListVersion add(Task task) {
+        assert task != null : "task to add must not be null";
+        if (task.getId() < nextId) {
+            task.setId(nextId);
+        }
+        int id = task.getId();
+        DateIndex dateIndex = dates;
+        WordIndex wordIndex = words;
+        return new TaskListVersion(order.append(id, task), records, id + 1,
+                dateIndex == null ? null : dateIndex.with(task),
+                wordIndex == null ? null : wordIndex.add(id, task.getTask()));
+    }
+
+    /**
+     * Returns a version without the task at the specified index.
+     *
+     * @param index the index of the task to remove
+     * @return the new version
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    TaskListVersion remove(int index) {
+        Task removed = get(index);
+        int id = order.get(index);
+        DateIndex dateIndex = dates;
+        WordIndex wordIndex = words;
+        return new TaskListVersion(order.remove(id), records, nextId,
+                dateIndex == null ? null : dateIndex.without(removed),
+                wordIndex == null ? null : wordIndex.remove(id, removed.getTask()));
+    }
+
+    /**
+     * Returns a version in which the task at the specified index is done.
+     *
+     * @param index the index of the task to mark
+     * @return the new version, or this version if the task is already done
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    TaskListVersion mark(int index) {
+        Task task = get(index);
+        if (task.isDone()) {
+            return this;
+        }
+        DateIndex dateIndex = dates;
+        dateIndex = dateIndex == null ? null : dateIndex.without(task);
+        // Every read creates a new Task, so no other version sees this one change
+        task.mark();
+        return new TaskListVersion(order.setTask(task.getId(), task), records, nextId, dateIndex, words);
+    }
+
+    /**
+     * Returns a version in which the task at the specified index is not done.
+     *
+     * @param index the index of the task to unmark
+     * @return the new version, or this version if the task is not done
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    TaskListVersion unmark(int index) {
+        Task task = get(index);
+        if (!task.isDone()) {
+            return this;
+        }
+        task.unmark();
+        DateIndex dateIndex = dates;
+        return new TaskListVersion(order.setTask(task.getId(), task), records, nextId,
+                dateIndex == null ? null : dateIndex.with(task), words);
+    }
+
+    /**
+     * Calls the given action with every task in list order.
+     */
+    private void forEach(Consumer<Task> action) {
+        order.forEach((task, id) -> action.accept(task != null ? task : materialize(id)));
+    }
+
+    private Task materialize(int id) {
+        return records.materialize(records.indexOfId(id));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= order.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + order.size());
+        }
+    }
+
+    /**
+     * Returns the date index, building it on first use. Records that are done or have no date
+     * are skipped without creating their tasks.
+     */
+    private DateIndex dates() {
+        DateIndex index = dates;
+        if (index != null) {
+            return index;
+        }
+        DateIndex[] built = {new DateIndex(IntervalTree.EMPTY, IntervalTree.EMPTY)};
+        order.forEach((task, id) -> {
+            if (task == null) {
+                int r = records.indexOfId(id);
+                if (records.isDone(r) || records.dueOf(r) == null) {
+                    return;
+                }
+                task = records.materialize(r);
+            }
+            built[0] = built[0].with(task);
+        });
+        // Another reader may be building the same index; either result is correct
+        dates = built[0];
+        return built[0];
+    }
+
+    /**
+     * Returns the word index, building it on first use. Descriptions of records are decoded
+     * without creating their tasks.
+     */
+    private WordIndex words() {
+        WordIndex index = words;
+        if (index != null) {
+            return index;
+        }
+        HashMap<String, IdSet> postings = new HashMap<>();
+        order.forEach((task, id) -> {
+            String description = task != null ? task.getTask() : records.descriptionOf(records.indexOfId(id));
+            for (String word : description.split(" ")) {
+                if (!word.isEmpty()) {
+                    postings.computeIfAbsent(word.toLowerCase(Locale.ROOT), k -> new IdSet()).add(id);
+                }
+            }
+        });
+        index = WordIndex.of(postings);
+        words = index;
+        return index;
+    }
+
+    /**
+     * Adds the ids of the tasks containing every keyword to hits, walking the smallest posting
+     * and probing the others.
+     */
+    private static void matchAll(WordIndex index, ArrayList<String> keywords, IdSet hits) {
+        OrderTree smallest = null;
+        ArrayList<OrderTree> postings = new ArrayList<>();
+        for (String keyword : keywords) {
+            OrderTree posting = index.get(keyword);
+            if (posting == null) {
+                return;
+            }
+            postings.add(posting);
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        if (smallest == null) {
+            return;
+        }
+        OrderTree walked = smallest;
+        walked.forEach(id -> {
+            for (OrderTree posting : postings) {
+                if (posting != walked && posting.indexOf(id) < 0) {
+                    return;
+                }
+            }
+            hits.add(id);
+        });
+    }
+
+    /**
+     * Adds the tasks indexed in the tree whose interval overlaps [from, to] to out.
+     */
+    private void collectPending(IntervalTree tree, LocalDateTime from, LocalDateTime to, ArrayList<Task> out) {
+        if (from.isAfter(to)) {
+            return;
+        }
+        // Indexed dates are whole seconds, so a range starting within a second starts at the next
+        long start = TaskColumns.toEpoch(from) + (from.getNano() > 0 ? 1 : 0);
+        tree.overlapping(start, TaskColumns.toEpoch(to), id -> out.add(getById(id)));
+    }
+}
@@ -0,0 +1,182 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import tasks.Deadline;
+import tasks.Event;
+import tasks.Task;
+import tasks.Todo;
+
+/**
+ * TaskRecords is a read-only view over the records of a binary snapshot held in memory.
+ * Opening it only builds an index of record offsets; a Task object is created for a record
+ * only when it is asked for, and the type, completion status and dates of a record can be
+ * inspected without creating one.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class TaskRecords {
+    private static final int TYPE = 0;
+    private static final int DONE = 1;
+    private static final int LENGTH = 4;
+
+    private final ByteBuffer buf;
+    private final int[] offsets;
+    private final int[] ids;
+    private final long generation;
+    private final int headerSize;
+    private final int first;
+    private final int second;
+
+    /**
+     * Constructs a TaskRecords view over the given snapshot buffer.
+     *
+     * @param buf the contents of the snapshot
+     * @param offsets the offset of each record header in the buffer
+     * @param ids the id of each record in increasing order, or null if records are numbered from 0
+     * @param generation the journal generation covered by the snapshot
+     * @param version the snapshot format version
+     */
+    TaskRecords(ByteBuffer buf, int[] offsets, int[] ids, long generation, short version) {
+        this.buf = buf;
+        this.offsets = offsets;
+        this.ids = ids;
+        this.generation = generation;
+        this.headerSize = BinarySnapshot.recordHeaderSize(version);
+        this.first = headerSize - 16;
+        this.second = headerSize - 8;
+    }
+
+    /**
+     * Returns the number of records in the snapshot.
+     *
+     * @return the record count
+     */
+    int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Returns the journal generation covered by the snapshot.
+     *
+     * @return the journal generation
+     */
+    long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the id of a record.
+     *
+     * @param i the record index
+     * @return the task id stored in the record
+     */
+    int idOf(int i) {
+        return ids == null ? i : ids[i];
+    }
+
+    /**
+     * Returns the index of the record with the given id.
+     *
+     * @param id the task id
+     * @return the record index, or a negative value if there is no such record
+     */
+    int indexOfId(int id) {
+        if (ids == null) {
+            return id >= 0 && id < offsets.length ? id : -1;
+        }
+        return Arrays.binarySearch(ids, id);
+    }
+
+    /**
+     * Returns the id of the last record, which is the largest id in the snapshot.
+     *
+     * @return the largest id, or -1 if there are no records
+     */
+    int maxId() {
+        return offsets.length == 0 ? -1 : idOf(offsets.length - 1);
+    }
+
+    /**
+     * Decodes only the description of a record.
+     *
+     * @param i the record index
+     * @return the task description
+     */
+    String descriptionOf(int i) {
+        int offset = offsets[i];
+        int length = buf.getInt(offset + LENGTH);
+        byte[] bytes = new byte[length];
+        buf.get(offset + headerSize, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the type code of a record: 't', 'd' or 'e'.
+     *
+     * @param i the record index
+     * @return the type code
+     */
+    byte typeOf(int i) {
+        return buf.get(offsets[i] + TYPE);
+    }
+
+    /**
+     * Returns whether a record is marked as done in the snapshot.
+     *
+     * @param i the record index
+     * @return true if the record is done
+     */
+    boolean isDone(int i) {
+        return buf.get(offsets[i] + DONE) != 0;
+    }
+
+    /**
+     * Returns the date a record is due by: the deadline of a deadline, or the end of an event.
+     *
+     * @param i the record index
+     * @return the due date, or null for a todo
+     */
+    LocalDateTime dueOf(int i) {
+        byte type = typeOf(i);
+        if (type == BinarySnapshot.DEADLINE) {
+            return toDate(buf.getLong(offsets[i] + first));
+        } else if (type == BinarySnapshot.EVENT) {
+            return toDate(buf.getLong(offsets[i] + second));
+        }
+        return null;
+    }
+
+    /**
+     * Creates the Task stored in a record, carrying the record's id.
+     *
+     * @param i the record index
+     * @return a new Task holding the record's data
+     */
+    Task materialize(int i) {
+        int offset = offsets[i];
+        byte type = buf.get(offset + TYPE);
+        boolean done = buf.get(offset + DONE) != 0;
+        String description = descriptionOf(i);
+        Task task;
+        if (type == BinarySnapshot.DEADLINE) {
+            task = new Deadline(description, done, toDate(buf.getLong(offset + first)));
+        } else if (type == BinarySnapshot.EVENT) {
+            task = new Event(description, done, toDate(buf.getLong(offset + first)),
+                    toDate(buf.getLong(offset + second)));
+        } else {
+            task = new Todo(description, done);
+        }
+        task.setId(idOf(i));
+        return task;
+    }
+
+    private static LocalDateTime toDate(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -1,13 +1,14 @@
 package utils;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
 
+import commands.CommandDispatcher;
 import exceptions.FishballException;
-import tasks.Deadline;
-import tasks.Event;
 import tasks.Task;
-import tasks.Todo;
 
 /**
  * UI is responsible for handling all user interface operations including displaying messages
@@ -23,6 +24,17 @@ public class UI {
     public static final String INDENT = "     ";
     public static final String WELCOME_MESSAGE = "Hello, I'm Fishball!\n" + INDENT + "What can I do for you?\n";
 
+    /** Size of the buffer between responses and stdout. */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    /** Size of the buffer between stdin and the commands read from it. */
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+    /** What every response begins with. */
+    private static final String RESPONSE_START = INDENT + HORIZONTAL_LINE + INDENT;
+    /** What every response ends with, before the line separator. */
+    private static final String RESPONSE_END = INDENT + HORIZONTAL_LINE;
+    /** Commands are stateless, so every UI shares one dispatcher. */
+    private static final CommandDispatcher COMMANDS = new CommandDispatcher();
+
     /**
      * Displays the welcome message when the application starts.
      */
@@ -43,7 +55,7 @@ public class UI {
     public void printWelcome(TaskList record) {
         assert record != null : "TaskList record must not be null";
         printWelcome();
-        java.util.ArrayList<Task> upcoming = record.getUpcomingWithinWeek();
+        ArrayList<Task> upcoming = record.getUpcomingWithinWeek();
         if (upcoming == null || upcoming.size() == 0) {
             System.out.println(INDENT
                     + "No upcoming deadlines or events within the next 7 days."
@@ -97,14 +109,9 @@ public class UI {
     public void find(String keyword, TaskList record) {
         System.out.print(INDENT + HORIZONTAL_LINE);
         System.out.println(INDENT + "Here are the matching tasks in your list:");
-        for (int i = 0; i < record.size(); i++) {
-            Task t = record.get(i);
-            String[] desc = t.getTask().split(" ");
-            if (java.util.Arrays.asList(desc).contains(keyword)) {
-                System.out.print(INDENT + " " + (i + 1) + ".");
-                System.out.println(t);
-                continue;
-            }
+        for (int i : record.find(keyword)) {
+            System.out.print(INDENT + " " + (i + 1) + ".");
+            System.out.println(record.get(i));
         }
         System.out.println(INDENT + HORIZONTAL_LINE);
     }
@@ -194,7 +201,7 @@ public class UI {
     /**
      * Processes a single user command and returns a string response.
      * Unlike handleInput, this method does not loop and returns a response string
-     * suitable for GUI use.
+     * suitable for GUI use. The command is looked up by its first word in a {@link CommandDispatcher}.
      *
      * @param input the user's command input
      * @param record the TaskList to be modified by user commands
@@ -202,227 +209,21 @@ public class UI {
      * @return a response message indicating the result of the command
      */
     public String processCommand(String input, TaskList record, Storage storage) {
-        try {
-            assert input != null : "input must not be null";
-            assert record != null : "record must not be null";
-            assert storage != null : "storage must not be null";
-            input = input.trim();
-            if (input.isEmpty()) {
-                return "OOPS! Come on fishball! This is an empty input! Please enter a command!";
-            }
-            String[] parse = input.split(" ");
-            String command = parse[0];
-            Task curr;
-
-            if (command.equals("bye") && parse.length == 1) {
-                return EXIT_MESSAGE;
-            }
-
-            if (command.equals("list")) {
-                if (parse.length != 1) {
-                    return "OOPS! Come on fishball! The list command does not take any parameters! "
-                            + "Just type 'list' to see your tasks.";
-                }
-                StringBuilder sb = new StringBuilder("Here are the tasks in your list:\n");
-                for (int i = 0; i < record.size(); i++) {
-                    sb.append((i + 1)).append(". ").append(record.get(i)).append("\n");
-                }
-                return sb.toString();
-            } else if (command.equals("reminder")) {
-                if (parse.length != 1) {
-                    return "OOPS! Come on fishball! The reminder command does not take any parameters! "
-                            + "Just type 'reminder' to see upcoming deadlines.";
-                }
-                java.util.ArrayList<Task> upcoming = record.getUpcomingWithinWeek();
-                if (upcoming == null || upcoming.size() == 0) {
-                    return "No upcoming deadlines or events within the next 7 days.";
-                }
-                StringBuilder rsb = new StringBuilder("Here are the upcoming "
-                        + "deadlines/events within the next 7 days:\n");
-                for (int i = 0; i < upcoming.size(); i++) {
-                    rsb.append((i + 1)).append(". ").append(upcoming.get(i)).append("\n");
-                }
-                return rsb.toString();
-            } else if (command.equals("find")) {
-                if (parse.length < 2) {
-                    return "OOPS! Come on fishball! Please provide a keyword in the format: find <keyword>";
-                }
-                String keyword = parse[1];
-                StringBuilder sb = new StringBuilder("Here are the matching tasks in your list:\n");
-                boolean found = false;
-                for (int i = 0; i < record.size(); i++) {
-                    Task t = record.get(i);
-                    String[] desc = t.getTask().split(" ");
-                    if (java.util.Arrays.asList(desc).contains(keyword)) {
-                        sb.append((i + 1)).append(". ").append(t).append("\n");
-                        found = true;
-                    }
-                }
-                if (!found) {
-                    return "No matching tasks found.";
-                }
-                return sb.toString();
-            } else if (command.equals("delete")) {
-                if (parse.length != 2) {
-                    return "OOPS! Come on fishball! Please provide a delete in the format: delete <task number>";
-                }
-                try {
-                    int index = Integer.parseInt(parse[1].trim()) - 1;
-                    if (index < 0 || index >= record.size()) {
-                        return "OOPS! Come on fishball! Task number is out of range! "
-                                + "Please provide a valid task number.";
-                    }
-                    Task delete = record.get(index);
-                    record.remove(index);
-                    storage.store(record.getAll());
-                    return "Noted. I've removed this task:\n  " + delete
-                            + "\nNow you have " + record.size() + " tasks in the list.";
-                } catch (NumberFormatException e) {
-                    return "OOPS! Come on fishball! Please provide a delete in the format: delete <task number>";
-                }
-            } else if (command.equals("mark") && parse.length == 2) {
-                try {
-                    int index = Integer.parseInt(parse[1]) - 1;
-                    if (index < 0 || index >= record.size()) {
-                        return "OOPS! Come on fishball! Task number is out of range! "
-                                + "Please provide a valid task number.";
-                    }
-                    record.get(index).mark();
-                    storage.store(record.getAll());
-                    return "Nice! I've marked this task as done\n" + record.get(index);
-                } catch (NumberFormatException e) {
-                    return "OOPS! Come on fishball! Please provide a valid task number.";
-                }
-            } else if (command.equals("unmark") && parse.length == 2) {
-                try {
-                    int index = Integer.parseInt(parse[1]) - 1;
-                    if (index < 0 || index >= record.size()) {
-                        return "OOPS! Come on fishball! Task number is out of range! "
-                                + "Please provide a valid task number.";
-                    }
-                    record.get(index).unmark();
-                    storage.store(record.getAll());
-                    return "Ok, I've marked this task as not done yet\n" + record.get(index);
-                } catch (NumberFormatException e) {
-                    return "OOPS! Come on fishball! Please provide a valid task number.";
-                }
-            } else {
-                String taskType = parse[0];
-                if (taskType.equals("todo")) {
-                    String task = "";
-                    for (int i = 1; i < parse.length; i++) {
-                        task = task + parse[i] + " ";
-                    }
-                    task = task.trim();
-                    if (task.isEmpty()) {
-                        return "OOPS! Come on fishball! The description of a todo cannot be empty!";
-                    }
-                    curr = new Todo(task, false);
-                    record.add(curr);
-                    storage.store(record.getAll());
-                    return "Got it. I've added this task: \n    " + curr
-                            + "\nNow you have " + record.size() + " tasks in the list.";
-                } else if (taskType.equals("deadline")) {
-                    String task = "";
-                    String deadline = "";
-                    boolean hasBy = false;
-                    for (int i = 1; i < parse.length; i++) {
-                        if (parse[i].equals("/by")) {
-                            hasBy = true;
-                            for (int j = i + 1; j < parse.length; j++) {
-                                if (j == parse.length - 1) {
-                                    deadline = deadline + parse[j];
-                                    break;
-                                }
-                                deadline = deadline + parse[j] + " ";
-                            }
-                            break;
-                        }
-                        task = task + parse[i] + " ";
-                    }
-                    task = task.trim();
-                    deadline = deadline.trim();
-                    if (task.isEmpty() || !hasBy || deadline.isEmpty()) {
-                        return "OOPS! Come on fishball! Please provide a deadline in the format: "
-                                + "deadline <task> /by <dd-MM-yyyy HHmm>";
-                    }
-                    try {
-                        LocalDateTime deadlineDate = Deadline.parseDate(deadline);
-                        curr = new Deadline(task, false, deadlineDate);
-                        record.add(curr);
-                        storage.store(record.getAll());
-                        return "Got it. I've added this task: \n    " + curr
-                                + "\nNow you have " + record.size() + " tasks in the list.";
-                    } catch (DateTimeParseException e) {
-                        return "OOPS! Come on fishball! Please provide a deadline in the format: "
-                                + "deadline <task> /by <dd-MM-yyyy HHmm> (e.g., 2019-10-15 1400)";
-                    }
-                } else if (taskType.equals("event")) {
-                    String task = "";
-                    String start = "";
-                    String end = "";
-                    boolean hasFrom = false;
-                    boolean hasTo = false;
-                    for (int i = 1; i < parse.length; i++) {
-                        if (parse[i].equals("/from")) {
-                            hasFrom = true;
-                            i++;
-                            while (i < parse.length && !parse[i].equals("/to")) {
-                                if (i == parse.length - 1
-                                        || (i + 1 < parse.length && parse[i + 1].equals("/to"))) {
-                                    start = start + parse[i];
-                                    i++;
-                                    break;
-                                }
-                                start = start + parse[i] + " ";
-                                i++;
-                            }
-                        }
-                        if (parse[i].equals("/to")) {
-                            hasTo = true;
-                            for (int j = i + 1; j < parse.length; j++) {
-                                if (j == parse.length - 1) {
-                                    end = end + parse[j];
-                                    break;
-                                }
-                                end = end + parse[j] + " ";
-                            }
-                            break;
-                        }
-                        task = task + parse[i] + " ";
-                    }
-                    task = task.trim();
-                    start = start.trim();
-                    end = end.trim();
-                    if (task.isEmpty() || !hasFrom || start.isEmpty() || !hasTo || end.isEmpty()) {
-                        return "OOPS! Come on fishball! Please provide an event in the format: "
-                                + "event <task> /from <dd-MM-yyyy HHmm> /to <dd-MM-yyyy HHmm>";
-                    }
-                    try {
-                        LocalDateTime startDate = Event.parseDate(start);
-                        LocalDateTime endDate = Event.parseDate(end);
-                        curr = new Event(task, false, startDate, endDate);
-                        record.add(curr);
-                        storage.store(record.getAll());
-                        return "Got it. I've added this task: \n    " + curr
-                                + "\nNow you have " + record.size() + " tasks in the list.";
-                    } catch (DateTimeParseException e) {
-                        return "OOPS! Come on fishball! Please provide an event in the format: "
-                                + "event <task> /from <dd-MM-yyyy HHmm> /to <dd-MM-yyyy HHmm>";
-                    }
-                } else {
-                    return "OOPS! Come on fishball! I don't recognize that command. Please use: "
-                            + "todo, deadline, event, list, find, mark, unmark, or bye.";
-                }
-            }
-        } catch (Exception e) {
-            return "OOPS! Come on fishball! " + e.getMessage();
-        }
+        assert input != null : "input must not be null";
+        assert record != null : "record must not be null";
+        assert storage != null : "storage must not be null";
+        return COMMANDS.dispatch(input, record, storage);
     }
 
     /**
      * Handles user input in a loop, processing commands and updating tasks accordingly.
      * Supports commands: list, delete, mark, unmark, todo, deadline, event, and bye.
+     * The loop ends after bye, or when the input ends.
+     *
+     * Commands are read a line at a time through a large buffer, and responses written through
+     * another that is only flushed once no more input is waiting. Someone typing sees each response
+     * as soon as it is ready, while a script piped in is answered in large writes, with the same
+     * output either way.
      *
      * @param record the TaskList to be modified by user commands
      * @param storage the Storage instance for persisting changes
@@ -431,24 +232,31 @@ public class UI {
     public void handleInput(TaskList record, Storage storage) throws FishballException {
         assert record != null : "record must not be null";
         assert storage != null : "storage must not be null";
-        try (Scanner scanner = new Scanner(System.in)) {
-            while (true) {
-                String input = scanner.nextLine();
-                String response = processCommand(input, record, storage);
-                if (response == null) {
-                    // defensive: should not happen, but continue loop
-                    continue;
+        // Responses are written straight to a buffered stdout, so a long list is never held whole
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE);
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in), INPUT_BUFFER_SIZE);
+            String input;
+            while ((input = in.readLine()) != null) {
+                out.write(RESPONSE_START);
+                boolean isDone = COMMANDS.dispatch(input, record, storage, out);
+                if (!isDone) {
+                    // Error messages do not end with a line separator of their own
+                    out.write('\n');
                 }
-                if (response.equals(EXIT_MESSAGE)) {
-                    printExit();
-                    return;
+                out.write(RESPONSE_END);
+                out.newLine();
+                if (isDone && input.trim().equals("bye")) {
+                    break;
                 }
-                if (response.startsWith("OOPS!")) {
-                    printError(response.replaceFirst("OOPS! Come on fishball! ", ""));
-                } else {
-                    System.out.println(INDENT + HORIZONTAL_LINE + INDENT + response + INDENT + HORIZONTAL_LINE);
+                if (!in.ready()) {
+                    out.flush();
                 }
             }
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Exception reading or writing the console: " + e.getMessage());
+            e.printStackTrace();
         }
     }
 }
@@ -0,0 +1,243 @@
+package utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * WordIndex maps each lower-cased word of the task descriptions to the ids of the tasks
+ * containing it, kept in increasing order in an {@link OrderTree}.
+ *
+ * The index is persistent: it is a hash array mapped trie, and adding or removing a task copies
+ * only the trie nodes on the path to each of its words and the path within their id trees, so
+ * every version of the index stays valid for as long as it is referenced.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class WordIndex {
+    /** The index without any words. */
+    static final WordIndex EMPTY = new WordIndex(Node.EMPTY);
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final class Entry {
+        private final String word;
+        private final OrderTree ids;
+
+        private Entry(String word, OrderTree ids) {
+            this.word = word;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * Node of the trie. Below the depth at which the hash bits run out, slots is a plain list of
+     * entries whose words share a hash, and bitmap is unused.
+     */
+    private static final class Node {
+        private static final Node EMPTY = new Node(0, new Object[0]);
+
+        private final int bitmap;
+        /** Entries and child nodes, in the order of their bits in the bitmap. */
+        private final Object[] slots;
+
+        private Node(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    private final Node root;
+
+    private WordIndex(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Builds an index from the ids of the tasks containing each word.
+     *
+     * @param words the ids of the tasks containing each lower-cased word
+     * @return the index
+     */
+    static WordIndex of(HashMap<String, IdSet> words) {
+        Node root = Node.EMPTY;
+        for (Map.Entry<String, IdSet> entry : words.entrySet()) {
+            int[] ids = entry.getValue().toArray();
+            root = put(root, 0, entry.getKey().hashCode(), new Entry(entry.getKey(), OrderTree.of(ids, ids.length)));
+        }
+        return new WordIndex(root);
+    }
+
+    /**
+     * Returns the ids of the tasks containing the given word.
+     *
+     * @param word the word, in any case
+     * @return the ids in increasing order, or null if no task contains the word
+     */
+    OrderTree get(String word) {
+        String key = normalize(word);
+        int hash = key.hashCode();
+        Node node = root;
+        for (int shift = 0; shift < Integer.SIZE; shift += BITS) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+            if (slot instanceof Entry) {
+                Entry entry = (Entry) slot;
+                return entry.word.equals(key) ? entry.ids : null;
+            }
+            node = (Node) slot;
+        }
+        for (Object slot : node.slots) {
+            if (((Entry) slot).word.equals(key)) {
+                return ((Entry) slot).ids;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an index that also lists a task under every word of its description.
+     * The id must be larger than that of every task already in the index.
+     *
+     * @param id the id of the task
+     * @param description the description of the task
+     * @return the new index
+     */
+    WordIndex add(int id, String description) {
+        Node added = root;
+        for (String word : wordsOf(description)) {
+            OrderTree ids = get(word);
+            ids = (ids == null ? OrderTree.EMPTY : ids).append(id, null);
+            added = put(added, 0, word.hashCode(), new Entry(word, ids));
+        }
+        return new WordIndex(added);
+    }
+
+    /**
+     * Returns an index that no longer lists a task under the words of its description.
+     *
+     * @param id the id of the task
+     * @param description the description of the task
+     * @return the new index
+     */
+    WordIndex remove(int id, String description) {
+        Node removed = root;
+        for (String word : wordsOf(description)) {
+            OrderTree ids = get(word);
+            if (ids == null) {
+                continue;
+            }
+            ids = ids.remove(id);
+            removed = ids.size() == 0
+                    ? remove(removed, 0, word.hashCode(), word)
+                    : put(removed, 0, word.hashCode(), new Entry(word, ids));
+        }
+        return new WordIndex(removed);
+    }
+
+    /**
+     * Returns the distinct lower-cased words of a description.
+     *
+     * @param description the description to split
+     * @return the words
+     */
+    static HashSet<String> wordsOf(String description) {
+        HashSet<String> words = new HashSet<>();
+        for (String word : description.split(" ")) {
+            if (!word.isEmpty()) {
+                words.add(normalize(word));
+            }
+        }
+        return words;
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    private static Node put(Node node, int shift, int hash, Entry entry) {
+        if (shift >= Integer.SIZE) {
+            for (int i = 0; i < node.slots.length; i++) {
+                if (((Entry) node.slots[i]).word.equals(entry.word)) {
+                    Object[] slots = node.slots.clone();
+                    slots[i] = entry;
+                    return new Node(0, slots);
+                }
+            }
+            Object[] slots = Arrays.copyOf(node.slots, node.slots.length + 1);
+            slots[node.slots.length] = entry;
+            return new Node(0, slots);
+        }
+        int bit = 1 << ((hash >>> shift) & MASK);
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        if ((node.bitmap & bit) == 0) {
+            Object[] slots = new Object[node.slots.length + 1];
+            System.arraycopy(node.slots, 0, slots, 0, i);
+            slots[i] = entry;
+            System.arraycopy(node.slots, i, slots, i + 1, node.slots.length - i);
+            return new Node(node.bitmap | bit, slots);
+        }
+        Object slot = node.slots[i];
+        Object replacement;
+        if (slot instanceof Node) {
+            replacement = put((Node) slot, shift + BITS, hash, entry);
+        } else if (((Entry) slot).word.equals(entry.word)) {
+            replacement = entry;
+        } else {
+            // Two words share this slot, so push both one level down
+            Entry existing = (Entry) slot;
+            Node child = put(Node.EMPTY, shift + BITS, existing.word.hashCode(), existing);
+            replacement = put(child, shift + BITS, hash, entry);
+        }
+        Object[] slots = node.slots.clone();
+        slots[i] = replacement;
+        return new Node(node.bitmap, slots);
+    }
+
+    private static Node remove(Node node, int shift, int hash, String word) {
+        if (shift >= Integer.SIZE) {
+            for (int i = 0; i < node.slots.length; i++) {
+                if (((Entry) node.slots[i]).word.equals(word)) {
+                    return new Node(0, without(node.slots, i));
+                }
+            }
+            return node;
+        }
+        int bit = 1 << ((hash >>> shift) & MASK);
+        if ((node.bitmap & bit) == 0) {
+            return node;
+        }
+        int i = Integer.bitCount(node.bitmap & (bit - 1));
+        Object slot = node.slots[i];
+        if (slot instanceof Entry) {
+            if (!((Entry) slot).word.equals(word)) {
+                return node;
+            }
+            return new Node(node.bitmap & ~bit, without(node.slots, i));
+        }
+        Node child = remove((Node) slot, shift + BITS, hash, word);
+        if (child == slot) {
+            return node;
+        }
+        if (child.slots.length == 0) {
+            return new Node(node.bitmap & ~bit, without(node.slots, i));
+        }
+        Object[] slots = node.slots.clone();
+        slots[i] = child;
+        return new Node(node.bitmap, slots);
+    }
+
+    private static Object[] without(Object[] slots, int i) {
+        Object[] copy = new Object[slots.length - 1];
+        System.arraycopy(slots, 0, copy, 0, i);
+        System.arraycopy(slots, i + 1, copy, i, copy.length - i);
+        return copy;
+    }
+}
@@ -0,0 +1,226 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * WriteBehindQueue hands records to a background writer.
+ * Enqueueing returns immediately unless the queue is full. The first record of a burst schedules
+ * a write at the end of the flush interval, which passes everything queued by then to the sink in
+ * one call, so a burst of mutations costs a single write.
+ *
+ * Writes run on a scheduled executor, which may be shared by the queues of many Storages so that
+ * they need no thread each. At most one write of a queue runs at a time, so the sink sees the
+ * bursts in order even when the executor has several threads.
+ *
+ * @author r-a-y-y-a
+ * @version 1.0
+ */
+final class WriteBehindQueue {
+    private final Object lock = new Object();
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final int capacity;
+    private final long flushIntervalMillis;
+    private final Consumer<ArrayList<String>> sink;
+    private final ScheduledExecutorService executor;
+    /** Whether the executor was started for this queue alone and is shut down with it. */
+    private final boolean isOwnExecutor;
+    private long enqueued;
+    private long written;
+    /** Whether a write at the end of the flush interval is scheduled. */
+    private boolean isScheduled;
+    /** Whether a write without delay is scheduled. */
+    private boolean isDue;
+    /** The thread running the sink, or null if no write is running. */
+    private Thread writer;
+    private boolean isFlushRequested;
+    private boolean isStopping;
+
+    /**
+     * Constructs a WriteBehindQueue that writes on a thread of its own.
+     *
+     * @param name the name of the writer thread
+     * @param capacity the number of records that may be queued before enqueueing blocks
+     * @param flushIntervalMillis how long to wait for more records before writing a burst
+     * @param sink receives each burst of records, in order, on the writer thread
+     */
+    WriteBehindQueue(String name, int capacity, long flushIntervalMillis, Consumer<ArrayList<String>> sink) {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        }), true, capacity, flushIntervalMillis, sink);
+    }
+
+    /**
+     * Constructs a WriteBehindQueue that writes on the given executor, which it does not shut down.
+     *
+     * @param executor the executor to run writes on
+     * @param capacity the number of records that may be queued before enqueueing blocks
+     * @param flushIntervalMillis how long to wait for more records before writing a burst
+     * @param sink receives each burst of records, in order, on a thread of the executor
+     */
+    WriteBehindQueue(ScheduledExecutorService executor, int capacity, long flushIntervalMillis,
+            Consumer<ArrayList<String>> sink) {
+        this(executor, false, capacity, flushIntervalMillis, sink);
+    }
+
+    private WriteBehindQueue(ScheduledExecutorService executor, boolean isOwnExecutor, int capacity,
+            long flushIntervalMillis, Consumer<ArrayList<String>> sink) {
+        assert capacity > 0 : "capacity must be positive";
+        assert flushIntervalMillis >= 0 : "flush interval must not be negative";
+        this.executor = executor;
+        this.isOwnExecutor = isOwnExecutor;
+        this.capacity = capacity;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sink = sink;
+    }
+
+    /**
+     * Queues a record for writing, waiting for room if the queue is full.
+     *
+     * @param record the record to write
+     */
+    void enqueue(String record) {
+        synchronized (lock) {
+            boolean isInterrupted = false;
+            while (queue.size() >= capacity && !isStopping) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                    break;
+                }
+            }
+            queue.add(record);
+            enqueued++;
+            scheduleWrite();
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records that have been queued but not yet written.
+     *
+     * @return the number of pending records
+     */
+    long getPendingCount() {
+        synchronized (lock) {
+            return enqueued - written;
+        }
+    }
+
+    /**
+     * Returns whether the calling thread is the one passing records to the sink.
+     *
+     * @return true when called from the sink
+     */
+    boolean isWriterThread() {
+        synchronized (lock) {
+            return Thread.currentThread() == writer;
+        }
+    }
+
+    /**
+     * Waits until every record queued before the call has been passed to the sink.
+     * The pending write skips the rest of its flush interval.
+     */
+    void flush() {
+        assert !isWriterThread() : "the writer cannot wait for itself";
+        synchronized (lock) {
+            long target = enqueued;
+            isFlushRequested = true;
+            scheduleWrite();
+            awaitWritten(target);
+        }
+    }
+
+    /**
+     * Writes everything still queued and, if the queue has a writer thread of its own, stops it.
+     */
+    void stop() {
+        synchronized (lock) {
+            isStopping = true;
+            lock.notifyAll();
+            scheduleWrite();
+            awaitWritten(enqueued);
+        }
+        if (isOwnExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Waits, holding the lock, until the given number of records has been written.
+     */
+    private void awaitWritten(long target) {
+        while (written < target) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Schedules a write of the queued records, at once if they are wanted now and otherwise at
+     * the end of the flush interval. Called holding the lock; a running write schedules the
+     * next one itself when it finishes.
+     */
+    private void scheduleWrite() {
+        if (queue.isEmpty() || writer != null) {
+            return;
+        }
+        if (isFlushRequested || isStopping || queue.size() >= capacity) {
+            if (!isDue) {
+                isDue = true;
+                executor.execute(this::write);
+            }
+        } else if (!isScheduled) {
+            isScheduled = true;
+            executor.schedule(this::write, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Passes everything queued to the sink. A write that finds another one running, or nothing
+     * queued because an earlier write took it, does nothing.
+     */
+    private void write() {
+        ArrayList<String> burst;
+        synchronized (lock) {
+            if (writer != null || queue.isEmpty()) {
+                return;
+            }
+            writer = Thread.currentThread();
+            isScheduled = false;
+            isDue = false;
+            burst = new ArrayList<>(queue);
+            queue.clear();
+            lock.notifyAll();
+        }
+        try {
+            sink.accept(burst);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to write queued records: " + e.getMessage());
+            e.printStackTrace();
+        }
+        synchronized (lock) {
+            writer = null;
+            written += burst.size();
+            if (written == enqueued) {
+                isFlushRequested = false;
+            }
+            scheduleWrite();
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import commands.Arguments;
+import commands.CommandDispatcher;
+import commands.FieldScanner;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * Unit tests for the CommandDispatcher, Arguments and FieldScanner classes.
+ */
+public class CommandDispatcherTest {
+    private CommandDispatcher dispatcher;
+    private TaskList taskList;
+    private Storage storage;
+
+    @BeforeEach
+    public void setUp() {
+        dispatcher = new CommandDispatcher();
+        taskList = new TaskList();
+        String testFilePath = "test_data/test_dispatcher.txt";
+        new File(testFilePath).delete();
+        storage = new Storage(testFilePath);
+    }
+
+    @Test
+    public void testArgumentsMatchSplit() {
+        String input = "todo   spaced  words";
+        String[] parse = input.split(" ");
+        Arguments args = new Arguments(input);
+        assertEquals(parse.length, args.count());
+        for (int i = 0; i < parse.length; i++) {
+            assertEquals(parse[i], args.get(i));
+        }
+        assertTrue(args.is(0, "todo"));
+        assertTrue(args.is(1, ""));
+        assertEquals("spaced  words", args.from(3));
+        assertEquals(42, new Arguments("mark 42").intAt(1));
+    }
+
+    @Test
+    public void testRegisteredCommand() {
+        dispatcher.register("count", (args, record, storage) -> "There are " + record.size() + " tasks.");
+        dispatcher.dispatch("todo Buy groceries", taskList, storage);
+        assertEquals("There are 1 tasks.", dispatcher.dispatch("count", taskList, storage));
+    }
+
+    @Test
+    public void testUnknownCommand() {
+        String response = dispatcher.dispatch("foo bar", taskList, storage);
+        assertEquals(CommandDispatcher.ERROR_PREFIX + CommandDispatcher.UNKNOWN_COMMAND, response);
+        assertEquals(response, dispatcher.dispatch("mark 1 2", taskList, storage));
+        assertEquals(response, dispatcher.dispatch("bye now", taskList, storage));
+    }
+
+    @Test
+    public void testFieldScannerSlices() {
+        String input = "event  project  sync /from 20-02-2030 1000  /to 20-02-2030 1100 ";
+        FieldScanner fields = new FieldScanner(input, 6, "/from", "/to");
+        assertEquals("project  sync", fields.get(FieldScanner.DESCRIPTION));
+        assertEquals("20-02-2030 1000", fields.get(1));
+        assertEquals("20-02-2030 1100", fields.get(2));
+        assertEquals(input.indexOf("/to") + 3, fields.start(2));
+    }
+
+    @Test
+    public void testFieldScannerMarkersInOrder() {
+        FieldScanner fields = new FieldScanner("event x /to a /from b", 6, "/from", "/to");
+        assertEquals("x /to a", fields.get(FieldScanner.DESCRIPTION));
+        assertTrue(fields.has(1));
+        assertTrue(!fields.has(2));
+        assertEquals("", fields.get(2));
+
+        FieldScanner partial = new FieldScanner("deadline pay/by rent /byte", 9, "/by");
+        assertTrue(!partial.has(1));
+        assertEquals("pay/by rent /byte", partial.get(FieldScanner.DESCRIPTION));
+    }
+
+    @Test
+    public void testListPages() {
+        for (int i = 1; i <= 7; i++) {
+            dispatcher.dispatch("todo task " + i, taskList, storage);
+        }
+        assertEquals("Here are the tasks in your list (page 2 of 3):\n"
+                + "4. [T][ ] task 4\n5. [T][ ] task 5\n6. [T][ ] task 6\n",
+                dispatcher.dispatch("list 2 3", taskList, storage));
+        assertEquals("Here are the tasks in your list (page 3 of 3):\n7. [T][ ] task 7\n",
+                dispatcher.dispatch("list 3 3", taskList, storage));
+        assertTrue(dispatcher.dispatch("list 1", taskList, storage).endsWith("7. [T][ ] task 7\n"));
+        assertTrue(dispatcher.dispatch("list 4 3", taskList, storage).startsWith(CommandDispatcher.ERROR_PREFIX));
+        assertTrue(dispatcher.dispatch("list 0", taskList, storage).startsWith(CommandDispatcher.ERROR_PREFIX));
+    }
+
+    @Test
+    public void testDispatchWritesToAppendable() throws Exception {
+        dispatcher.dispatch("todo Buy groceries", taskList, storage);
+        StringBuilder out = new StringBuilder();
+        assertTrue(dispatcher.dispatch("list", taskList, storage, out));
+        assertEquals(dispatcher.dispatch("list", taskList, storage), out.toString());
+        out.setLength(0);
+        assertEquals(false, dispatcher.dispatch("list x", taskList, storage, out));
+        assertTrue(out.toString().startsWith(CommandDispatcher.ERROR_PREFIX));
+    }
+}
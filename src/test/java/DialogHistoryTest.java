@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the DialogHistory class.
+ * Tests that messages beyond the capacity are spilled to disk and read back in order.
+ */
+public class DialogHistoryTest {
+    private File directory;
+
+    @BeforeEach
+    public void setUp() {
+        directory = new File("test_data/history");
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testKeepsMessagesWithinCapacityInMemory() throws IOException {
+        DialogHistory history = new DialogHistory(4, directory.toPath());
+        history.add(new DialogHistory.Message(true, "list"));
+        history.add(new DialogHistory.Message(false, "Here are the tasks in your list:"));
+        assertEquals(2, history.size());
+        assertEquals(0, history.getSpilledCount());
+        assertEquals(0, directory.listFiles().length);
+        history.close();
+    }
+
+    @Test
+    public void testSpillsOldestMessagesAndReadsThemBack() throws IOException {
+        DialogHistory history = new DialogHistory(3, directory.toPath());
+        for (int i = 0; i < 10; i++) {
+            history.add(new DialogHistory.Message(i % 2 == 0, "message " + i + " \u00e9\u9b5a"));
+        }
+        assertEquals(10, history.size());
+        assertEquals(7, history.getSpilledCount());
+        for (int i = 9; i >= 0; i--) {
+            DialogHistory.Message message = history.get(i);
+            assertEquals("message " + i + " \u00e9\u9b5a", message.getText());
+            assertEquals(i % 2 == 0, message.isUser());
+        }
+        history.close();
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void testGetOutOfRange() throws IOException {
+        DialogHistory history = new DialogHistory(1, Path.of(directory.getPath()));
+        history.add(new DialogHistory.Message(true, "bye"));
+        boolean thrown = false;
+        try {
+            history.get(1);
+        } catch (IndexOutOfBoundsException e) {
+            thrown = true;
+        }
+        assertTrue(thrown);
+        assertFalse(history.get(0).getText().isEmpty());
+        history.close();
+    }
+}
@@ -0,0 +1,160 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import commands.CommandDispatcher;
+import server.FishballServer;
+import server.TaskEngineRegistry;
+import utils.Storage;
+
+/**
+ * Unit tests for the FishballServer class.
+ * Tests the line protocol, concurrent clients sharing one task list and per-user task lists.
+ */
+public class FishballServerTest {
+    private static final String TEST_FILE_PATH = "test_data/test_server.txt";
+
+    private FishballServer server;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        new File("test_data").mkdirs();
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            new File(TEST_FILE_PATH + suffix).delete();
+        }
+        server = new FishballServer(TEST_FILE_PATH, 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testCommandsOverConnection() throws IOException {
+        try (Socket socket = connect()) {
+            PrintWriter out = writer(socket);
+            BufferedReader in = reader(socket);
+            out.println("todo Buy groceries");
+            assertTrue(readResponse(in).get(0).startsWith("Got it."));
+            out.println("list");
+            ArrayList<String> list = readResponse(in);
+            assertEquals(2, list.size());
+            assertEquals("1. [T][ ] Buy groceries", list.get(1));
+            out.println("bye");
+            readResponse(in);
+            assertEquals(null, in.readLine());
+        }
+    }
+
+    @Test
+    public void testImportIsNotAvailable() throws IOException {
+        File secret = new File("test_data/test_server_secret.txt");
+        try (FileWriter writer = new FileWriter(secret)) {
+            writer.write("secret-line\n");
+        }
+        try (Socket socket = connect()) {
+            PrintWriter out = writer(socket);
+            out.println("import " + secret.getPath());
+            ArrayList<String> response = readResponse(reader(socket));
+            assertEquals(CommandDispatcher.ERROR_PREFIX + CommandDispatcher.UNKNOWN_COMMAND, response.get(0));
+            assertFalse(response.toString().contains("secret-line"));
+        }
+        secret.delete();
+    }
+
+    @Test
+    public void testConcurrentClientsShareList() throws Exception {
+        int clients = 8;
+        int perClient = 25;
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            Thread thread = new Thread(() -> {
+                try (Socket socket = connect()) {
+                    PrintWriter out = writer(socket);
+                    BufferedReader in = reader(socket);
+                    for (int j = 0; j < perClient; j++) {
+                        out.println("todo client " + client + " task " + j);
+                        readResponse(in);
+                        out.println("find client");
+                        readResponse(in);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        try (Socket socket = connect()) {
+            PrintWriter out = writer(socket);
+            out.println("list");
+            assertEquals(clients * perClient + 1, readResponse(reader(socket)).size());
+        }
+        server.close();
+        assertEquals(clients * perClient, new Storage(TEST_FILE_PATH, true).load().size());
+        server = new FishballServer(TEST_FILE_PATH, 0);
+    }
+
+    @Test
+    public void testUsersOverConnection() throws IOException {
+        server.close();
+        server = new FishballServer(new TaskEngineRegistry("test_data/server_users", 4, 0), 0);
+        server.start();
+        try (Socket socket = connect()) {
+            PrintWriter out = writer(socket);
+            BufferedReader in = reader(socket);
+            out.println("list");
+            assertTrue(readResponse(in).get(0).startsWith(CommandDispatcher.ERROR_PREFIX));
+            out.println("user alice");
+            readResponse(in);
+            out.println("todo Buy groceries");
+            readResponse(in);
+            out.println("user bob");
+            readResponse(in);
+            out.println("list");
+            assertEquals(1, readResponse(in).size());
+        }
+    }
+
+    private Socket connect() throws IOException {
+        return new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    }
+
+    private static PrintWriter writer(Socket socket) throws IOException {
+        return new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    private static ArrayList<String> readResponse(BufferedReader in) throws IOException {
+        ArrayList<String> lines = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(FishballServer.END_OF_RESPONSE)) {
+            lines.add(line.startsWith("..") ? line.substring(1) : line);
+        }
+        return lines;
+    }
+}
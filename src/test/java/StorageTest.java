@@ -0,0 +1,403 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tasks.Deadline;
+import tasks.Event;
+import tasks.Task;
+import tasks.Todo;
+import utils.Storage;
+import utils.TaskList;
+
+/**
+ * Unit tests for the Storage class.
+ * Tests snapshot persistence and journal replay.
+ */
+public class StorageTest {
+    private String testFilePath;
+
+    @BeforeEach
+    public void setUp() {
+        testFilePath = "test_data/test_storage.txt";
+        File dir = new File("test_data");
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        for (String suffix : new String[] {"", ".journal", ".journal.old", ".tmp"}) {
+            File file = new File(testFilePath + suffix);
+            if (file.exists()) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testStoreAndLoad() {
+        Storage storage = new Storage(testFilePath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Buy groceries", false));
+        tasks.add(new Deadline("Submit report", true, LocalDateTime.of(2030, 3, 15, 23, 59)));
+        storage.store(tasks);
+
+        ArrayList<Task> loaded = new Storage(testFilePath).load();
+        assertEquals(2, loaded.size());
+        assertEquals("Buy groceries", loaded.get(0).getTask());
+        assertTrue(loaded.get(1).isDone());
+    }
+
+    @Test
+    public void testJournalReplay() {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("Task 1", false));
+        storage.storeAdded(tasks.get(0), tasks);
+        tasks.add(new Todo("Task 2", false));
+        storage.storeAdded(tasks.get(1), tasks);
+        tasks.mark(1);
+        storage.storeMarked(tasks.get(1), tasks);
+        Task removed = tasks.get(0);
+        tasks.remove(0);
+        storage.storeDeleted(removed, tasks);
+
+        storage.close();
+
+        ArrayList<Task> loaded = new Storage(testFilePath, true).load();
+        assertEquals(1, loaded.size());
+        assertEquals("Task 2", loaded.get(0).getTask());
+        assertTrue(loaded.get(0).isDone());
+        assertTrue(new File(testFilePath + ".journal").exists());
+    }
+
+    @Test
+    public void testJournalCompaction() {
+        Storage storage = new Storage(testFilePath, true);
+        storage.setCompactionThreshold(64);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Todo("Task " + i, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        Task removed = tasks.get(10);
+        tasks.remove(10);
+        storage.storeDeleted(removed, tasks);
+        storage.close();
+
+        ArrayList<Task> loaded = new Storage(testFilePath, true).load();
+        assertEquals(49, loaded.size());
+        assertEquals("Task 11", loaded.get(10).getTask());
+        assertEquals("Task 49", loaded.get(48).getTask());
+    }
+
+    @Test
+    public void testStoreSupersedesJournal() {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("Task 1", false));
+        storage.storeAdded(tasks.get(0), tasks);
+        storage.store(tasks.getAll());
+        tasks.add(new Todo("Task 2", false));
+        storage.storeAdded(tasks.get(1), tasks);
+
+        ArrayList<Task> loaded = storage.load();
+        storage.close();
+        assertEquals(2, loaded.size());
+        assertEquals("Task 2", loaded.get(1).getTask());
+    }
+
+    @Test
+    public void testLoadLegacyCsv() throws IOException {
+        try (FileWriter fw = new FileWriter(testFilePath)) {
+            fw.write("t,Buy groceries,true\n");
+            fw.write("e,Team meeting,false,2030-02-20T10:00,2030-02-20T11:00\n");
+        }
+        ArrayList<Task> loaded = new Storage(testFilePath).load();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(0).isDone());
+        assertEquals(LocalDateTime.of(2030, 2, 20, 11, 0), ((Event) loaded.get(1)).getEnd());
+    }
+
+    @Test
+    public void testCsvExportAndImport() {
+        Storage storage = new Storage(testFilePath);
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Buy groceries", false));
+        tasks.add(new Event("Team meeting", true,
+                LocalDateTime.of(2030, 2, 20, 10, 0), LocalDateTime.of(2030, 2, 20, 11, 0)));
+        String csvPath = "test_data/test_export.csv";
+        storage.exportCsv(csvPath, tasks);
+
+        ArrayList<Task> imported = storage.importCsv(csvPath);
+        assertEquals(2, imported.size());
+        assertEquals("Team meeting", imported.get(1).getTask());
+        assertTrue(imported.get(1).isDone());
+        new File(csvPath).delete();
+    }
+
+    @Test
+    public void testLoadTaskListReplaysJournalOntoSnapshot() {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("Task 1", false));
+        tasks.add(new Deadline("Task 2", false, LocalDateTime.of(2030, 3, 15, 23, 59)));
+        tasks.add(new Todo("Task 3", false));
+        storage.store(tasks.getAll());
+        tasks.mark(2);
+        storage.storeMarked(tasks.get(2), tasks);
+        Task removed = tasks.get(0);
+        tasks.remove(0);
+        storage.storeDeleted(removed, tasks);
+        storage.close();
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(2, loaded.size());
+        assertEquals("Task 2", loaded.get(0).getTask());
+        assertEquals(LocalDateTime.of(2030, 3, 15, 23, 59), ((Deadline) loaded.get(0)).getDeadline());
+        assertTrue(loaded.get(1).isDone());
+    }
+
+    @Test
+    public void testIdsSurviveSnapshotAndJournal() {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 5; i++) {
+            tasks.add(new Todo("Task " + i, false));
+        }
+        tasks.remove(1);
+        storage.store(tasks.getAll());
+        tasks.add(new Todo("Task 5", false));
+        storage.storeAdded(tasks.get(4), tasks);
+        tasks.mark(3);
+        storage.storeMarked(tasks.get(3), tasks);
+        storage.close();
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(5, loaded.size());
+        assertEquals(2, loaded.get(1).getId());
+        assertEquals(5, loaded.get(4).getId());
+        assertEquals("Task 4", loaded.getById(4).getTask());
+        assertTrue(loaded.getById(4).isDone());
+        assertEquals(null, loaded.getById(1));
+    }
+
+    @Test
+    public void testBatchIsReplayedWhole() throws IOException {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        storage.beginBatch();
+        for (int i = 0; i < 3; i++) {
+            tasks.add(new Todo("Task " + i, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        assertTrue(!new File(testFilePath + ".journal").exists());
+        storage.commitBatch(tasks);
+        storage.close();
+        assertEquals(3, new Storage(testFilePath, true).load().size());
+
+        // A batch cut off before its closing line is dropped
+        try (FileWriter fw = new FileWriter(testFilePath + ".journal", true)) {
+            fw.write("{\nA,3,t,Task 3,false\n");
+        }
+        assertEquals(3, new Storage(testFilePath, true).load().size());
+    }
+
+    @Test
+    public void testCompactionThresholdCountsBytes() {
+        String description = "\u9b5a".repeat(40);
+        Storage storage = new Storage(testFilePath, true);
+        // Two records are 273 bytes of journal but only 113 characters
+        storage.setCompactionThreshold(200);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 2; i++) {
+            tasks.add(new Todo(description, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        storage.close();
+        assertTrue(new File(testFilePath).length() > 0);
+        assertFalse(new File(testFilePath + ".journal").exists());
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(2, loaded.size());
+        assertEquals(description, loaded.get(1).getTask());
+    }
+
+    @Test
+    public void testWriteBehindFlush() {
+        Storage storage = new Storage(testFilePath, true);
+        storage.startWriteBehind(16, 1000);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Todo("Task " + i, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        tasks.mark(49);
+        storage.storeMarked(tasks.get(49), tasks);
+        storage.flush();
+        assertEquals(0, storage.getPendingCount());
+
+        ArrayList<Task> loaded = new Storage(testFilePath, true).load();
+        assertEquals(50, loaded.size());
+        assertTrue(loaded.get(49).isDone());
+        storage.close();
+    }
+
+    @Test
+    public void testCloseWritesQueuedMutations() {
+        Storage storage = new Storage(testFilePath, true);
+        storage.startWriteBehind(Storage.DEFAULT_WRITE_QUEUE_CAPACITY, 60_000);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(new Todo("Task " + i, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        tasks.mark(19);
+        storage.storeMarked(tasks.get(19), tasks);
+        assertTrue(storage.getPendingCount() > 0);
+        storage.close();
+        assertEquals(0, storage.getPendingCount());
+
+        ArrayList<Task> loaded = new Storage(testFilePath, true).load();
+        assertEquals(20, loaded.size());
+        assertTrue(loaded.get(19).isDone());
+    }
+
+    @Test
+    public void testWriteBehindWithoutJournal() {
+        Storage storage = new Storage(testFilePath);
+        storage.startWriteBehind(4, 10);
+        TaskList tasks = new TaskList();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Todo("Task " + i, false));
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        assertEquals(10, storage.load().size());
+        storage.close();
+        assertEquals(0, storage.getPendingCount());
+        assertEquals("Task 9", new Storage(testFilePath).load().get(9).getTask());
+    }
+
+    @Test
+    public void testRecoversCompleteTempSnapshot() {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Buy groceries", false));
+        tasks.add(new Todo("Read book", true));
+        new Storage(testFilePath + ".tmp").store(tasks);
+        new File(testFilePath).delete();
+
+        ArrayList<Task> loaded = new Storage(testFilePath).load();
+        assertEquals(2, loaded.size());
+        assertTrue(loaded.get(1).isDone());
+        assertFalse(new File(testFilePath + ".tmp").exists());
+    }
+
+    @Test
+    public void testDiscardsTruncatedTempSnapshot() throws IOException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("Buy groceries", false));
+        new Storage(testFilePath).store(tasks);
+        tasks.add(new Todo("Read book", false));
+        new Storage(testFilePath + ".tmp").store(tasks);
+        try (RandomAccessFile tmp = new RandomAccessFile(testFilePath + ".tmp", "rw")) {
+            tmp.setLength(tmp.length() - 3);
+        }
+
+        ArrayList<Task> loaded = new Storage(testFilePath).load();
+        assertEquals(1, loaded.size());
+        assertFalse(new File(testFilePath + ".tmp").exists());
+    }
+
+    @Test
+    public void testTornJournalRecordIsDiscarded() throws IOException {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("Task 1", false));
+        storage.storeAdded(tasks.get(0), tasks);
+        storage.close();
+        try (FileWriter fw = new FileWriter(testFilePath + ".journal", true)) {
+            fw.write("A,12,t,par");
+        }
+
+        storage = new Storage(testFilePath, true);
+        tasks = storage.loadTaskList();
+        assertEquals(1, tasks.size());
+        tasks.add(new Todo("Task 2", false));
+        storage.storeAdded(tasks.get(1), tasks);
+        storage.close();
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(2, loaded.size());
+        assertEquals("Task 2", loaded.get(1).getTask());
+    }
+
+    @Test
+    public void testRecordsAfterUnclosedBatchSurviveRestart() throws IOException {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("Task 1", false));
+        storage.storeAdded(tasks.get(0), tasks);
+        storage.close();
+        try (FileWriter fw = new FileWriter(testFilePath + ".journal", true)) {
+            fw.write("{\nA,2,t,Task 2,false\n");
+        }
+
+        storage = new Storage(testFilePath, true);
+        tasks = storage.loadTaskList();
+        assertEquals(1, tasks.size());
+        tasks.add(new Todo("Task 3", false));
+        storage.storeAdded(tasks.get(1), tasks);
+        storage.close();
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(2, loaded.size());
+        assertEquals("Task 3", loaded.get(1).getTask());
+    }
+
+    @Test
+    public void testDescriptionWithCommaRoundTrips() {
+        Storage storage = new Storage(testFilePath, true);
+        TaskList tasks = new TaskList();
+        tasks.add(new Todo("buy eggs, milk", false));
+        tasks.add(new Deadline("pay rent, bills", true, LocalDateTime.of(2030, 3, 15, 23, 59)));
+        tasks.add(new Event("lunch, then talk", false,
+                LocalDateTime.of(2030, 2, 20, 10, 0), LocalDateTime.of(2030, 2, 20, 11, 0)));
+        for (int i = 0; i < tasks.size(); i++) {
+            storage.storeAdded(tasks.get(i), tasks);
+        }
+        storage.close();
+
+        TaskList loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals(3, loaded.size());
+        assertEquals("buy eggs, milk", loaded.get(0).getTask());
+        assertEquals("pay rent, bills", loaded.get(1).getTask());
+        assertTrue(loaded.get(1).isDone());
+        assertEquals(LocalDateTime.of(2030, 3, 15, 23, 59), ((Deadline) loaded.get(1)).getDeadline());
+        assertEquals("lunch, then talk", loaded.get(2).getTask());
+        assertEquals(LocalDateTime.of(2030, 2, 20, 11, 0), ((Event) loaded.get(2)).getEnd());
+
+        // Compacting the journal into the snapshot keeps the whole description
+        storage = new Storage(testFilePath, true);
+        storage.setCompactionThreshold(1);
+        tasks = storage.loadTaskList();
+        tasks.mark(0);
+        storage.storeMarked(tasks.get(0), tasks);
+        storage.close();
+        loaded = new Storage(testFilePath, true).loadTaskList();
+        assertEquals("buy eggs, milk", loaded.get(0).getTask());
+        assertTrue(loaded.get(0).isDone());
+
+        // So does the plain text format
+        new Storage(testFilePath).store(loaded.getAll());
+        ArrayList<Task> reloaded = new Storage(testFilePath).load();
+        assertEquals("buy eggs, milk", reloaded.get(0).getTask());
+        assertEquals("lunch, then talk", reloaded.get(2).getTask());
+    }
+}
@@ -0,0 +1,143 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import commands.CommandDispatcher;
+import server.TaskEngineRegistry;
+
+/**
+ * Unit tests for the TaskEngineRegistry class.
+ * Tests per-user task lists, lazy opening and eviction of idle engines.
+ */
+public class TaskEngineRegistryTest {
+    private static final String TEST_DIRECTORY = "test_data/users";
+    /** Enough tasks for a journal of them to pass the default compaction threshold. */
+    private static final int JOURNAL_TASKS = 40000;
+
+    private TaskEngineRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        File directory = new File(TEST_DIRECTORY);
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        registry = new TaskEngineRegistry(TEST_DIRECTORY, 2, 0);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    public void testUsersHaveSeparateLists() {
+        registry.process("alice", "todo Buy groceries");
+        registry.process("bob", "todo Read book");
+        registry.process("bob", "todo Call mum");
+        assertTrue(registry.process("alice", "list").contains("1. [T][ ] Buy groceries"));
+        assertFalse(registry.process("alice", "list").contains("Read book"));
+        assertTrue(registry.process("bob", "list").contains("2. [T][ ] Call mum"));
+    }
+
+    @Test
+    public void testImportCannotNameShardFiles() {
+        registry.process("alice", "todo Secret plans");
+        registry.close();
+        registry = new TaskEngineRegistry(TEST_DIRECTORY, 2, 0);
+        registry.process("alice", "todo More secret plans");
+        for (String shard : new String[] {"alice.txt", "alice.txt.journal"}) {
+            String response = registry.process("bob", "import " + TEST_DIRECTORY + "/" + shard);
+            assertTrue(response.startsWith(CommandDispatcher.ERROR_PREFIX));
+            assertFalse(response.contains("plans"));
+        }
+        assertFalse(registry.process("bob", "list").contains("plans"));
+        assertTrue(registry.process("alice", "list").contains("2. [T][ ] More secret plans"));
+    }
+
+    @Test
+    public void testEnginesOpenLazily() {
+        assertEquals(0, registry.getResidentCount());
+        assertFalse(new File(TEST_DIRECTORY, "alice.txt").exists());
+        registry.process("alice", "list");
+        assertTrue(registry.isResident("alice"));
+        assertTrue(new File(TEST_DIRECTORY, "alice.txt").exists());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedAndReloaded() {
+        registry.process("alice", "todo Buy groceries");
+        registry.process("bob", "todo Read book");
+        registry.process("alice", "list");
+        registry.process("carol", "todo Call mum");
+        assertEquals(2, registry.getResidentCount());
+        assertFalse(registry.isResident("bob"));
+        assertTrue(registry.isResident("alice"));
+
+        assertTrue(registry.process("bob", "list").contains("1. [T][ ] Read book"));
+        assertFalse(registry.isResident("alice"));
+    }
+
+    @Test
+    public void testUnloadIdle() throws InterruptedException {
+        TaskEngineRegistry idle = new TaskEngineRegistry(TEST_DIRECTORY, 10, 1);
+        idle.process("alice", "todo Buy groceries");
+        Thread.sleep(20);
+        idle.unloadIdle();
+        assertEquals(0, idle.getResidentCount());
+        assertTrue(idle.process("alice", "list").contains("Buy groceries"));
+        idle.close();
+    }
+
+    @Test
+    public void testShardsCompactAtTheSameTime() throws IOException, InterruptedException {
+        String[] users = {"alice", "bob"};
+        for (String user : users) {
+            try (FileWriter fw = new FileWriter(new File(TEST_DIRECTORY, user + ".txt.journal"))) {
+                fw.write("#gen,1\n");
+                for (int id = 1; id <= JOURNAL_TASKS; id++) {
+                    fw.write("A," + id + ",t," + user + " task " + id + ",false\n");
+                }
+            }
+        }
+        Thread[] threads = new Thread[users.length];
+        for (int i = 0; i < users.length; i++) {
+            String user = users[i];
+            threads[i] = new Thread(() -> registry.process(user, "todo Last of " + user));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        registry.close();
+
+        registry = new TaskEngineRegistry(TEST_DIRECTORY, 2, 0);
+        for (String user : users) {
+            // Both journals were folded into snapshots before the registry finished closing
+            assertTrue(new File(TEST_DIRECTORY, user + ".txt").length() > 0);
+            assertFalse(new File(TEST_DIRECTORY, user + ".txt.journal.old").exists());
+            String list = registry.process(user, "list");
+            assertTrue(list.contains(JOURNAL_TASKS + ". [T][ ] " + user + " task " + JOURNAL_TASKS));
+            assertTrue(list.contains((JOURNAL_TASKS + 1) + ". [T][ ] Last of " + user));
+            assertFalse(list.contains(user.equals("alice") ? "bob" : "alice"));
+        }
+    }
+
+    @Test
+    public void testInvalidUserId() {
+        assertTrue(TaskEngineRegistry.isValidUserId("user_01-a"));
+        assertFalse(TaskEngineRegistry.isValidUserId("../alice"));
+        assertFalse(TaskEngineRegistry.isValidUserId(""));
+    }
+}
@@ -1,4 +1,5 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.time.LocalDateTime;
@@ -12,6 +13,7 @@ import tasks.Event;
 import tasks.Task;
 import tasks.Todo;
 import utils.TaskList;
+import utils.TaskListVersion;
 
 public class TaskListTest {
     private TaskList taskList;
@@ -149,4 +151,172 @@ public class TaskListTest {
         assertEquals(deadlineTask, taskList.get(0));
         assertEquals(eventTask, taskList.get(1));
     }
+
+    @Test
+    public void testGetDueBetween() {
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        taskList.add(eventTask);
+
+        ArrayList<Task> due = taskList.getDueBetween(LocalDateTime.of(2026, 2, 1, 0, 0),
+                LocalDateTime.of(2026, 2, 28, 0, 0));
+        assertEquals(2, due.size());
+        assertEquals(eventTask, due.get(0));
+        assertEquals(deadlineTask, due.get(1));
+    }
+
+    @Test
+    public void testGetBetweenIncludesOverlappingEvents() {
+        taskList.add(eventTask);
+        taskList.add(deadlineTask);
+
+        ArrayList<Task> between = taskList.getBetween(LocalDateTime.of(2026, 2, 10, 10, 30),
+                LocalDateTime.of(2026, 2, 10, 10, 45));
+        assertEquals(1, between.size());
+        assertEquals(eventTask, between.get(0));
+        assertEquals(0, taskList.getDueBetween(LocalDateTime.of(2026, 2, 10, 10, 30),
+                LocalDateTime.of(2026, 2, 10, 10, 45)).size());
+    }
+
+    @Test
+    public void testDateIndexFollowsMarkAndRemove() {
+        LocalDateTime from = LocalDateTime.of(2026, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 28, 0, 0);
+        taskList.add(deadlineTask);
+        taskList.add(eventTask);
+        assertEquals(2, taskList.getDueBetween(from, to).size());
+
+        taskList.mark(0);
+        assertEquals(1, taskList.getDueBetween(from, to).size());
+        taskList.unmark(0);
+        assertEquals(2, taskList.getDueBetween(from, to).size());
+
+        taskList.remove(1);
+        taskList.add(new Deadline("Pay rent", false, LocalDateTime.of(2026, 2, 1, 9, 0)));
+        ArrayList<Task> due = taskList.getDueBetween(from, to);
+        assertEquals(2, due.size());
+        assertEquals("Pay rent", due.get(0).getTask());
+    }
+
+    @Test
+    public void testFindFollowsAddAndRemove() {
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        assertEquals(1, taskList.find("groceries").size());
+
+        taskList.remove(0);
+        assertEquals(0, taskList.find("groceries").size());
+        taskList.add(new Todo("More groceries", false));
+        assertEquals(1, (int) taskList.find("GROCERIES").get(0));
+    }
+
+    @Test
+    public void testIdsStableAcrossRemove() {
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        taskList.add(eventTask);
+        int eventId = eventTask.getId();
+
+        taskList.remove(0);
+        assertEquals(eventId, taskList.get(1).getId());
+        assertEquals(eventTask, taskList.getById(eventId));
+        assertEquals(1, taskList.indexOfId(eventId));
+        assertEquals(-1, taskList.indexOfId(todoTask.getId()));
+        assertEquals(null, taskList.getById(todoTask.getId()));
+    }
+
+    @Test
+    public void testPositionsAfterManyRemoves() {
+        ArrayList<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Todo("task " + i, false);
+            taskList.add(task);
+            expected.add(task);
+        }
+        for (int i = 0; i < 300; i++) {
+            int index = (i * 7) % expected.size();
+            taskList.remove(index);
+            expected.remove(index);
+        }
+        assertEquals(expected.size(), taskList.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), taskList.get(i));
+            assertEquals(i, taskList.indexOfId(expected.get(i).getId()));
+        }
+    }
+
+    @Test
+    public void testVersionUnaffectedByLaterChanges() {
+        taskList.add(todoTask);
+        taskList.add(deadlineTask);
+        LocalDateTime from = LocalDateTime.of(2026, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 2, 28, 0, 0);
+        assertEquals(1, taskList.getDueBetween(from, to).size());
+        TaskListVersion version = taskList.version();
+
+        taskList.mark(1);
+        taskList.remove(0);
+        taskList.add(eventTask);
+
+        assertEquals(2, version.size());
+        assertEquals("Buy groceries", version.get(0).getTask());
+        assertFalse(version.get(1).isDone());
+        assertEquals(1, version.getDueBetween(from, to).size());
+        assertEquals(1, version.find("groceries").size());
+        assertTrue(taskList.get(0).isDone());
+        assertEquals(1, taskList.getDueBetween(from, to).size());
+        assertEquals(0, taskList.find("groceries").size());
+    }
+
+    @Test
+    public void testReadersDuringWrites() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            taskList.add(new Todo("task " + i, false));
+        }
+        ArrayList<Throwable> failures = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2000; i++) {
+                    TaskListVersion version = taskList.version();
+                    int size = version.size();
+                    assertEquals(size, version.getAll().size());
+                    for (int index : version.find("task")) {
+                        assertTrue(index < size);
+                        version.get(index);
+                    }
+                }
+            } catch (Throwable e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 2000; i++) {
+            taskList.add(new Todo("task " + (100 + i), false));
+            taskList.mark(i % taskList.size());
+            taskList.remove(0);
+        }
+        reader.join();
+        assertEquals("[]", failures.toString());
+        assertEquals(100, taskList.size());
+    }
+
+    @Test
+    public void testListedLinesFollowChanges() {
+        for (int i = 0; i < 100; i++) {
+            taskList.add(new Todo("task " + i, false));
+        }
+        StringBuilder before = new StringBuilder();
+        taskList.version().appendNumbered(before);
+        assertTrue(before.toString().startsWith("1. [T][ ] task 0\n2. [T][ ] task 1\n"));
+
+        taskList.mark(70);
+        taskList.remove(0);
+        StringBuilder after = new StringBuilder();
+        taskList.version().appendNumbered(after);
+        assertTrue(after.toString().startsWith("1. [T][ ] task 1\n"));
+        assertTrue(after.toString().contains("\n70. [T][X] task 70\n"));
+        assertTrue(after.toString().endsWith("\n99. [T][ ] task 99\n"));
+    }
 }
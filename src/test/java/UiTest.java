@@ -2,6 +2,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -76,6 +77,14 @@ public class UiTest {
         assertEquals(1, taskList.size());
     }
 
+    @Test
+    public void testAddEventWithoutEnd() {
+        String response = ui.processCommand("event Team meeting /from 20-02-2024 1000", taskList, storage);
+        assertTrue(response.contains("OOPS"));
+        assertTrue(response.contains("/from"));
+        assertEquals(0, taskList.size());
+    }
+
     @Test
     public void testAddEmptyTodo() {
         String response = ui.processCommand("todo", taskList, storage);
@@ -203,6 +212,37 @@ public class UiTest {
         assertTrue(!response.contains("Sell car"));
     }
 
+    @Test
+    public void testFindIgnoresCase() {
+        taskList.add(new Todo("Buy groceries", false));
+
+        String response = ui.processCommand("find buy", taskList, storage);
+        assertTrue(response.contains("1. [T][ ] Buy groceries"));
+    }
+
+    @Test
+    public void testFindAllKeywords() {
+        taskList.add(new Todo("Buy milk", false));
+        taskList.add(new Todo("Buy bread", false));
+
+        String response = ui.processCommand("find buy bread", taskList, storage);
+        assertTrue(response.contains("2. [T][ ] Buy bread"));
+        assertTrue(!response.contains("Buy milk"));
+    }
+
+    @Test
+    public void testFindAnyKeyword() {
+        taskList.add(new Todo("Buy milk", false));
+        taskList.add(new Todo("Sell car", false));
+        taskList.add(new Todo("Read book", false));
+
+        String response = ui.processCommand("find milk /or car", taskList, storage);
+        assertTrue(response.contains("1. [T][ ] Buy milk"));
+        assertTrue(response.contains("2. [T][ ] Sell car"));
+        assertTrue(!response.contains("Read book"));
+        assertTrue(ui.processCommand("find milk /or", taskList, storage).contains("OOPS"));
+    }
+
     @Test
     public void testFindMissingKeyword() {
         String response = ui.processCommand("find", taskList, storage);
@@ -250,6 +290,58 @@ public class UiTest {
         assertTrue(response.contains("Meeting"));
     }
 
+    @Test
+    public void testReminderWithDays() {
+        taskList.add(new Deadline("Next month", false, LocalDateTime.now().plusDays(20)));
+
+        String response = ui.processCommand("reminder 30", taskList, storage);
+        assertTrue(response.contains("within the next 30 days"));
+        assertTrue(response.contains("Next month"));
+        assertTrue(ui.processCommand("reminder", taskList, storage).contains("No upcoming deadlines"));
+    }
+
+    @Test
+    public void testReminderInvalidDays() {
+        String response = ui.processCommand("reminder soon", taskList, storage);
+        assertTrue(response.contains("OOPS"));
+        assertTrue(response.contains("reminder [days]"));
+    }
+
+    // Tests for import command
+    @Test
+    public void testImportAppliesAllLines() throws IOException {
+        ui.processCommand("todo Existing task", taskList, storage);
+        String importPath = "test_data/test_import.txt";
+        try (FileWriter fw = new FileWriter(importPath)) {
+            fw.write("todo Buy groceries\n\ndeadline Submit report /by 15-03-2030 2359\nmark 1\n");
+        }
+        String response = ui.processCommand("import " + importPath, taskList, storage);
+        assertTrue(response.contains("Imported 3 commands"));
+        assertEquals(3, taskList.size());
+        assertTrue(taskList.get(0).isDone());
+
+        TaskList reloaded = new TaskList(storage.load());
+        assertEquals(3, reloaded.size());
+        assertEquals("Submit report", reloaded.get(2).getTask());
+        new File(importPath).delete();
+    }
+
+    @Test
+    public void testImportRollsBackOnFailure() throws IOException {
+        ui.processCommand("todo Existing task", taskList, storage);
+        String importPath = "test_data/test_import.txt";
+        try (FileWriter fw = new FileWriter(importPath)) {
+            fw.write("todo Buy groceries\nmark 1\ndelete 9\n");
+        }
+        String response = ui.processCommand("import " + importPath, taskList, storage);
+        assertTrue(response.startsWith("OOPS"));
+        assertTrue(response.contains("line 3 (delete 9)"));
+        assertEquals(1, taskList.size());
+        assertTrue(!taskList.get(0).isDone());
+        assertEquals(1, storage.load().size());
+        new File(importPath).delete();
+    }
+
     // Tests for bye command
     @Test
     public void testByeCommand() {